@@ -0,0 +1,45 @@
+package benchmark;
+
+import coffeeshop.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of Simulation.logEvent for the actor logging the event, alone and
+ * with several actors logging at the same time.  The log is silent, so
+ * only the handoff to the event log's consumer is measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LogEventBenchmark {
+    private SimulationEvent event;
+
+    @Setup
+    public void setUp() {
+        Simulation.eventLog = new EventLog();
+        event = SimulationEvent.customerStarting(new Customer("Customer 0",
+                Collections.singletonList(FoodType.coffee)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Simulation.eventLog.close();
+    }
+
+    @Benchmark
+    public void logEvent() {
+        Simulation.logEvent(event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void logEventContended() {
+        Simulation.logEvent(event);
+    }
+}
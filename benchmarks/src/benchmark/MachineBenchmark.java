@@ -0,0 +1,77 @@
+package benchmark;
+
+import coffeeshop.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of Machine.makeFood: handing an item to the machine's workers,
+ * logging its events and completing its future.  The benchmark food takes
+ * no time to cook, so only the machinery around cooking is measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MachineBenchmark {
+    private static final int ORDER_NUM = 0;
+    private static final int BATCH_SIZE = 64;
+
+    @Param({"1", "4", "16"})
+    public int machineCapacity;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String executionMode;
+
+    /* -1 cooks items in independent slots, 0 in batches of whatever is waiting */
+    @Param({"-1", "0"})
+    public long batchWindowMillis;
+
+    private final Food instantFood = new Food("instant food", 0);
+    private Machine machine;
+    private Cook cook;
+    private CompletableFuture<?>[] batch;
+
+    @Setup
+    public void setUp() {
+        Simulation.eventLog = new EventLog();
+        machine = new Machine("Bench", instantFood, machineCapacity,
+                ExecutionMode.valueOf(executionMode).threadFactory());
+        if (batchWindowMillis >= 0) {
+            machine.setBatchWindowMillis(batchWindowMillis);
+        }
+        cook = new Cook("Cook 0");
+        batch = new CompletableFuture<?>[BATCH_SIZE];
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        machine.shutdown();
+        Simulation.eventLog.close();
+    }
+
+    /**
+     * Latency of a single item, from submission to completion.
+     */
+    @Benchmark
+    public Food makeFood() {
+        return machine.makeFood(cook, ORDER_NUM).join();
+    }
+
+    /**
+     * Throughput with more items than slots: the machine stays full and
+     * the extra items wait in line.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void makeFoodBatch() {
+        for (int index = 0; index < BATCH_SIZE; index++) {
+            batch[index] = machine.makeFood(cook, ORDER_NUM);
+        }
+        CompletableFuture.allOf(batch).join();
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import coffeeshop.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each CoffeeShopReportStreams query on event logs of increasing
+ * size, asked alone, and of all of them read from the single-pass report of
+ * the log.  The logs are produced once per trial by the
+ * discrete-event engine.
+ */
+@BenchmarkMode({Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReportStreamsBenchmark {
+    @Param({"1000", "100000"})
+    public int numCustomers;
+
+    private List<SimulationEvent> events;
+    private Cook cook;
+
+    @Setup
+    public void setUp() {
+        Customer.setRunningCounter(0);
+        events = DiscreteEventSimulation.runSimulation(numCustomers, 20, 50, 4, true);
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookStarting) {
+                cook = event.getCook();
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<List<Food>> getOrdersByCook() {
+        return new CoffeeShopReportStreams().getOrdersByCook(events, cook);
+    }
+
+    @Benchmark
+    public Map<Cook, Collection<List<Food>>> getMapOrdersByCook() {
+        return new CoffeeShopReportStreams().getMapOrdersByCook(events);
+    }
+
+    @Benchmark
+    public long getNumBurgersCooked() {
+        return new CoffeeShopReportStreams().getNumBurgersCooked(events);
+    }
+
+    @Benchmark
+    public long getNumFriesCooked() {
+        return new CoffeeShopReportStreams().getNumFriesCooked(events);
+    }
+
+    @Benchmark
+    public long getNumCoffeeCooked() {
+        return new CoffeeShopReportStreams().getNumCoffeeCooked(events);
+    }
+
+    @Benchmark
+    public Map<String, Long> getFoodCountByType() {
+        return new CoffeeShopReportStreams().getFoodCountByType(events);
+    }
+
+    @Benchmark
+    public Map<Cook, Long> getOrdersNumByCook() {
+        return new CoffeeShopReportStreams().getOrdersNumByCook(events);
+    }
+
+    @Benchmark
+    public Map<Cook, Double> getPercentageOrdersByCook() {
+        return new CoffeeShopReportStreams().getPercentageOrdersByCook(events);
+    }
+
+    @Benchmark
+    public Map<Cook, Double> getAverageCookingTimeByCook() {
+        return new CoffeeShopReportStreams().getAverageCookingTimeByCook(events);
+    }
+
+    @Benchmark
+    public void allReports(Blackhole blackhole) {
+        CoffeeShopReport report = new CoffeeShopReportStreams().report(events);
+        blackhole.consume(report.getOrdersByCook(cook));
+        blackhole.consume(report.getMapOrdersByCook());
+        blackhole.consume(report.getFoodCount(FoodType.burger));
+        blackhole.consume(report.getFoodCount(FoodType.fries));
+        blackhole.consume(report.getFoodCount(FoodType.coffee));
+        blackhole.consume(report.getFoodCountByType());
+        blackhole.consume(report.getOrdersNumByCook());
+        blackhole.consume(report.getPercentageOrdersByCook());
+        blackhole.consume(report.getAverageCookingTimeByCook());
+    }
+}
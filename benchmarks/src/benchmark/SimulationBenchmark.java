@@ -0,0 +1,57 @@
+package benchmark;
+
+import coffeeshop.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput and latency of a whole simulation run, over a grid
+ * of customers, cooks, tables and machine capacity, for every engine and
+ * WorkMode.
+ * Events are kept in memory only, so console output is not measured.
+ * <p>
+ * The threaded engines really sleep for the cooking times, so a run takes
+ * at least as long as its slowest chain of orders; narrow the grid from the
+ * command line (e.g. -p engine=DISCRETE_EVENT) for quick comparisons.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class SimulationBenchmark {
+    @Param({"PLATFORM", "VIRTUAL", "DISCRETE_EVENT"})
+    public String engine;
+
+    @Param({"10", "100"})
+    public int numCustomers;
+
+    @Param({"5", "20"})
+    public int numCooks;
+
+    @Param({"5", "50"})
+    public int numTables;
+
+    @Param({"2", "4"})
+    public int machineCapacity;
+
+    @Param({"ORDER", "ITEM"})
+    public String workMode;
+
+    @Benchmark
+    public List<SimulationEvent> runSimulation() {
+        Customer.setRunningCounter(0);
+        if (engine.equals("DISCRETE_EVENT")) {
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(numCustomers, numCooks,
+                    numTables, machineCapacity, true);
+            simulation.setWorkMode(WorkMode.valueOf(workMode));
+            return simulation.run();
+        }
+        Simulation.workMode = WorkMode.valueOf(workMode);
+        return Simulation.runSimulation(numCustomers, numCooks, numTables, machineCapacity, true,
+                ExecutionMode.valueOf(engine), new MemoryEventSink());
+    }
+}
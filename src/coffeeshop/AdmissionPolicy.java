@@ -0,0 +1,105 @@
+package coffeeshop;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An AdmissionPolicy decides what customers do when every table is taken,
+ * rather than letting them all wait in line for as long as it takes:
+ * <ul>
+ * <li>a customer arriving to a line of maxLine customers is turned away;</li>
+ * <li>a customer who expects to wait longer than balkWaitMillis for a table
+ * balks, i.e. leaves without joining the line;</li>
+ * <li>a customer who has waited in line for renegeMillis reneges, i.e.
+ * gives up and leaves.</li>
+ * </ul>
+ * The expected wait is estimated from the line length and how long
+ * customers stayed at their tables so far (see Seating).  Customers turned
+ * away, balking or reneging are shed: they never enter the coffee shop.
+ * UNLIMITED, the default, sheds nobody.
+ */
+public final class AdmissionPolicy {
+    public static final AdmissionPolicy UNLIMITED = new AdmissionPolicy(Integer.MAX_VALUE, -1, -1);
+
+    private final int maxLine;
+    private final long balkWaitNanos;
+    private final long renegeNanos;
+
+    /**
+     * @param maxLine        the most customers waiting for a table at once
+     * @param balkWaitMillis the longest expected wait customers put up with, or -1 for any
+     * @param renegeMillis   how long customers wait in line before giving up, or -1 for ever
+     */
+    public AdmissionPolicy(int maxLine, long balkWaitMillis, long renegeMillis) {
+        if (maxLine < 0) {
+            throw new IllegalArgumentException("Negative line length " + maxLine);
+        }
+        this.maxLine = maxLine;
+        this.balkWaitNanos = balkWaitMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(balkWaitMillis);
+        this.renegeNanos = renegeMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(renegeMillis);
+    }
+
+    public static AdmissionPolicy maxLine(int maxLine) {
+        return new AdmissionPolicy(maxLine, -1, -1);
+    }
+
+    public static AdmissionPolicy balking(long balkWaitMillis) {
+        return new AdmissionPolicy(Integer.MAX_VALUE, balkWaitMillis, -1);
+    }
+
+    public static AdmissionPolicy reneging(long renegeMillis) {
+        return new AdmissionPolicy(Integer.MAX_VALUE, -1, renegeMillis);
+    }
+
+    public int getMaxLine() {
+        return maxLine;
+    }
+
+    /**
+     * The longest expected wait for a table customers put up with, in
+     * nanoseconds, or -1 if they never balk.
+     */
+    public long getBalkWaitNanos() {
+        return balkWaitNanos;
+    }
+
+    /**
+     * How long customers wait in line before giving up, in nanoseconds, or
+     * -1 if they never do.
+     */
+    public long getRenegeNanos() {
+        return renegeNanos;
+    }
+
+    /**
+     * What a customer finding no free table does, given the customers
+     * already waiting and how long it expects to wait: TURNED_AWAY, BALKED,
+     * or WAITING if it joins the line.
+     */
+    Outcome arrive(int line, long expectedWaitNanos) {
+        if (line >= maxLine) {
+            return Outcome.TURNED_AWAY;
+        }
+        if (balkWaitNanos >= 0 && expectedWaitNanos > balkWaitNanos) {
+            return Outcome.BALKED;
+        }
+        return Outcome.WAITING;
+    }
+
+    public String toString() {
+        return "max line " + (maxLine == Integer.MAX_VALUE ? "unlimited" : maxLine)
+                + "; balk above " + (balkWaitNanos < 0 ? "never" : balkWaitNanos / 1_000_000 + " ms")
+                + "; renege after " + (renegeNanos < 0 ? "never" : renegeNanos / 1_000_000 + " ms");
+    }
+
+    /**
+     * How a customer's attempt to get a table ended, or that it is still
+     * waiting for one.
+     */
+    public enum Outcome {
+        SEATED,
+        WAITING,
+        TURNED_AWAY,
+        BALKED,
+        RENEGED
+    }
+}
@@ -0,0 +1,138 @@
+package coffeeshop;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * An ArrivalSchedule says when each customer of a run heads to the coffee
+ * shop.  The schedules provided are:
+ * <ul>
+ * <li>burst(): every customer at once, when the run starts (the default);</li>
+ * <li>constant(rate): one customer every 1/rate seconds;</li>
+ * <li>poisson(rate): a Poisson process, i.e. exponential gaps of mean
+ * 1/rate seconds;</li>
+ * <li>thinned(rate, maxRate): a Poisson process whose rate varies over
+ * time, drawn by thinning a process of the maximum rate;</li>
+ * <li>diurnal(rates, period): a thinned process following a daily curve,
+ * interpolated between the given rates and repeating every period;</li>
+ * <li>trace(arrivals) and load(file): recorded arrival times.</li>
+ * </ul>
+ * Rates are in customers per second.  Random schedules draw from the given
+ * generator only, so the same seed gives the same arrivals.
+ */
+public interface ArrivalSchedule {
+
+    /**
+     * Returns the arrival time of each of the given number of customers, in
+     * nanoseconds from the start of the run, in increasing order.
+     */
+    long[] arrivals(int numCustomers, SplittableRandom random);
+
+    static ArrivalSchedule burst() {
+        return (numCustomers, random) -> new long[numCustomers];
+    }
+
+    static ArrivalSchedule constant(double perSecond) {
+        checkRate(perSecond);
+        return (numCustomers, random) -> {
+            long[] arrivals = new long[numCustomers];
+            for (int customer = 0; customer < numCustomers; customer++) {
+                arrivals[customer] = (long) (customer * 1e9 / perSecond);
+            }
+            return arrivals;
+        };
+    }
+
+    static ArrivalSchedule poisson(double perSecond) {
+        return thinned(seconds -> perSecond, perSecond);
+    }
+
+    /**
+     * A Poisson process whose rate at any time, in seconds from the start of
+     * the run, is given by the function, and never above maxPerSecond.
+     */
+    static ArrivalSchedule thinned(DoubleUnaryOperator perSecondAt, double maxPerSecond) {
+        checkRate(maxPerSecond);
+        return (numCustomers, random) -> {
+            long[] arrivals = new long[numCustomers];
+            double seconds = 0;
+            for (int customer = 0; customer < numCustomers; customer++) {
+                // Candidates at the maximum rate, each kept with probability rate / maxRate
+                do {
+                    seconds -= Math.log(1.0 - random.nextDouble()) / maxPerSecond;
+                } while (random.nextDouble() * maxPerSecond >= perSecondAt.applyAsDouble(seconds));
+                arrivals[customer] = (long) (seconds * 1e9);
+            }
+            return arrivals;
+        };
+    }
+
+    /**
+     * A Poisson process following a daily curve: the rate goes linearly
+     * from each of the given rates to the next, evenly spaced over the
+     * period, and back to the first one.
+     */
+    static ArrivalSchedule diurnal(double[] perSecond, double periodSeconds) {
+        if (perSecond.length == 0 || periodSeconds <= 0) {
+            throw new IllegalArgumentException("A diurnal curve needs rates and a positive period");
+        }
+        double[] rates = perSecond.clone();
+        double segmentSeconds = periodSeconds / rates.length;
+        return thinned(seconds -> {
+            double position = (seconds % periodSeconds) / segmentSeconds;
+            int segment = Math.min((int) position, rates.length - 1);
+            double from = rates[segment];
+            double to = rates[(segment + 1) % rates.length];
+            return from + (to - from) * (position - segment);
+        }, Arrays.stream(rates).max().getAsDouble());
+    }
+
+    /**
+     * Recorded arrival times, in nanoseconds from the start of the run; a
+     * run can't have more customers than the trace.
+     */
+    static ArrivalSchedule trace(long[] arrivalNanos) {
+        long[] sorted = arrivalNanos.clone();
+        Arrays.sort(sorted);
+        return (numCustomers, random) -> {
+            if (numCustomers > sorted.length) {
+                throw new IllegalArgumentException("The trace has only " + sorted.length
+                        + " arrivals, not " + numCustomers);
+            }
+            return Arrays.copyOf(sorted, numCustomers);
+        };
+    }
+
+    /**
+     * Reads a trace from a file with the arrival time of a customer per
+     * line, in milliseconds from the start of the run (fractions allowed).
+     * Lines starting with # and blank lines are ignored.
+     *
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    static ArrivalSchedule load(Path file) throws IOException {
+        long[] arrivals = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .mapToLong(line -> {
+                    double millis = Double.parseDouble(line);
+                    if (!(millis >= 0)) {
+                        throw new IllegalArgumentException("Negative arrival time " + line);
+                    }
+                    return (long) (millis * 1e6);
+                })
+                .toArray();
+        return trace(arrivals);
+    }
+
+    private static void checkRate(double perSecond) {
+        if (!(perSecond > 0) || Double.isInfinite(perSecond)) {
+            throw new IllegalArgumentException("Arrival rate must be positive, not " + perSecond);
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package coffeeshop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A CoffeeShop is one run of the simulation: its customers, cooks and
+ * machines, and the order queue, tables, event log and histograms they
+ * share.  Its actors only ever use the state of their own shop, so any
+ * number of shops can run at the same time in the same JVM (see
+ * CoffeeShopFleet).  Simulation.runSimulation() runs a single shop.
+ */
+public class CoffeeShop {
+    private final int numCustomers;
+    private final int numCooks;
+    private final int numTables;
+    private final int machineCapacity;
+    private final boolean randomOrders;
+    private final ExecutionMode executionMode;
+    private final EventSink[] sinks;
+    private final List<SimulationEventListener> listeners =
+            new CopyOnWriteArrayList<SimulationEventListener>();
+    private boolean fairSeating = true;
+    private OrderGenerator orderGenerator = new OrderGenerator();
+    private OrderSchedulingPolicy schedulingPolicy = OrderSchedulingPolicy.fifo();
+    private WorkMode workMode = WorkMode.ORDER;
+    private long batchWindowMillis = -1;
+    private Menu menu = Menu.DEFAULT;
+    private ArrivalSchedule arrivalSchedule = ArrivalSchedule.burst();
+    private long warmupMillis;
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.UNLIMITED;
+    private boolean jmxEnabled;
+
+    private EventLog eventLog;
+    private final LongAdder eventCount = new LongAdder();
+    private OrderQueue orderList;
+    private ItemQueue itemQueue;
+    private final List<Cook> cookList = new ArrayList<Cook>();
+    private long runNanos;
+    private Seating seating;
+    private final StageLatencies latencies = new StageLatencies();
+    private SteadyStateStats steadyState;
+    /* When the arrival schedule started, in System.nanoTime(), and when every customer is due */
+    private long arrivalsStartedNanos;
+    private long[] arrivalNanos;
+    /* One machine per menu entry, in menu order */
+    private Machine[] machines;
+    /* The customer threads, once created, for stop() to send them away */
+    private volatile Thread[] customerThreads;
+    private volatile boolean stopped;
+    private final CountDownLatch stopping = new CountDownLatch(1);
+
+    /**
+     * A shop running its actors on platform threads and keeping its events
+     * in memory only.
+     */
+    public CoffeeShop(int numCustomers, int numCooks,
+                      int numTables,
+                      int machineCapacity,
+                      boolean randomOrders) {
+        this(numCustomers, numCooks, numTables, machineCapacity, randomOrders,
+                ExecutionMode.PLATFORM, new MemoryEventSink());
+    }
+
+    /**
+     * @param numCustomers    the number of customers wanting to enter the coffee shop
+     * @param numCooks        the number of cooks in the simulation
+     * @param numTables       the number of tables in the coffee shop (i.e. coffee shop capacity)
+     * @param machineCapacity the capacity of all machines in the coffee shop
+     * @param randomOrders    a flag say whether to give each customer a random order
+     * @param executionMode   the kind of thread the simulation actors run on
+     * @param sinks           the sinks the simulation events are written to
+     */
+    public CoffeeShop(int numCustomers, int numCooks,
+                      int numTables,
+                      int machineCapacity,
+                      boolean randomOrders,
+                      ExecutionMode executionMode,
+                      EventSink... sinks) {
+        this.numCustomers = numCustomers;
+        this.numCooks = numCooks;
+        this.numTables = numTables;
+        this.machineCapacity = machineCapacity;
+        this.randomOrders = randomOrders;
+        this.executionMode = executionMode;
+        this.sinks = sinks;
+    }
+
+    /**
+     * Whether waiting customers are seated in the order they arrived; true
+     * by default.  Must be called before run().
+     */
+    public void setFairSeating(boolean fairSeating) {
+        this.fairSeating = fairSeating;
+    }
+
+    /**
+     * Seeds the random orders of the customers, so that shops with the same
+     * seed get the same workload.  Must be called before run().
+     */
+    public void setSeed(long seed) {
+        this.orderGenerator = new OrderGenerator(seed);
+    }
+
+    /**
+     * Sets how cooks pick the next order among the waiting ones; first come
+     * first served by default.  Must be called before run().
+     */
+    public void setSchedulingPolicy(OrderSchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+    /**
+     * Sets whether cooks take whole orders or single items; whole orders by
+     * default.  Must be called before run().
+     */
+    public void setWorkMode(WorkMode workMode) {
+        this.workMode = workMode;
+    }
+
+    public WorkMode getWorkMode() {
+        return workMode;
+    }
+
+    /**
+     * Sets the foods the shop serves and the machines making them; the
+     * DEFAULT menu by default.  Must be called before run().
+     */
+    public void setMenu(Menu menu) {
+        this.menu = menu;
+    }
+
+    public Menu getMenu() {
+        return menu;
+    }
+
+    /**
+     * Makes the machines cook in batches of up to their capacity, waiting at
+     * most the given window for a batch to fill up, rather than in
+     * independent slots.  Must be called before run().
+     */
+    public void setBatchCooking(long windowMillis) {
+        this.batchWindowMillis = windowMillis;
+    }
+
+    /**
+     * Sets when the customers head to the coffee shop; all at once by
+     * default.  Must be called before run().
+     */
+    public void setArrivalSchedule(ArrivalSchedule arrivalSchedule) {
+        this.arrivalSchedule = arrivalSchedule;
+    }
+
+    /**
+     * Sets how long after the start of the run customers arrive before
+     * getSteadyState() counts them; 0 by default.  Must be called before
+     * run().
+     */
+    public void setWarmupMillis(long warmupMillis) {
+        this.warmupMillis = warmupMillis;
+    }
+
+    /**
+     * Sets what customers finding no free table do: wait for as long as it
+     * takes by default.  Must be called before run().
+     */
+    public void setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        this.admissionPolicy = admissionPolicy;
+    }
+
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    /**
+     * Whether the shop registers MBeans with the platform MBean server while
+     * it runs, for JMX tools to watch its queues, machines and cooks (see
+     * CoffeeShopMXBean); false by default.  Must be called before run().
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * Registers a listener told about every event of this shop as it is
+     * logged, synchronously, on the thread of the actor logging it.
+     */
+    public void addListener(SimulationEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Used by the actors of the shop to log events.  The event is passed to
+     * the listeners right away, then handed to the sinks asynchronously.
+     */
+    void logEvent(SimulationEvent event) {
+        for (SimulationEventListener listener : listeners) {
+            listener.onEvent(event);
+        }
+        eventLog.add(event);
+        eventCount.increment();
+    }
+
+    /**
+     * Stops the run early, e.g. from a listener watching LiveMetrics, or
+     * from another thread: no more customers arrive, and those waiting in
+     * line for a table are turned away.  The customers already seated are
+     * served, and run() then returns as usual.  Can be called at any time,
+     * any number of times.
+     */
+    public void stop() {
+        stopped = true;
+        stopping.countDown();
+        Thread[] customers = customerThreads;
+        if (customers != null) {
+            for (Thread customer : customers) {
+                customer.interrupt();
+            }
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Number of events logged so far.
+     */
+    public long getEventCount() {
+        return eventCount.sum();
+    }
+
+    /**
+     * Runs the shop until every customer has been served and left, and
+     * returns the events kept by the first EventStore among its sinks, or an
+     * empty list if there is none.  Can be called only once per instance.
+     */
+    public List<SimulationEvent> run() {
+        long started = System.nanoTime();
+        // Create the log all events are written to and the tables
+        eventLog = new EventLog(sinks);
+        seating = new Seating(numTables, fairSeating);
+
+        // Start the simulation
+        logEvent(SimulationEvent.startSimulation(numCustomers,
+                numCooks,
+                numTables,
+                machineCapacity));
+
+        // Create the Machines of the menu, each with its own pool of worker threads
+        machines = new Machine[menu.size()];
+        for (int index = 0; index < machines.length; index++) {
+            Menu.Entry entry = menu.getEntries().get(index);
+            machines[index] = new Machine(entry.getMachineName(), entry.getFood(), machineCapacity,
+                    executionMode.threadFactory(), this);
+            if (batchWindowMillis >= 0) {
+                machines[index].setBatchWindowMillis(batchWindowMillis);
+            }
+            logEvent(SimulationEvent.machineStarting(machines[index], entry.getFood(), machineCapacity));
+        }
+        MachineLoad machineLoad = food -> machineFor(food).getEstimatedWaitNanos();
+        orderList = new OrderQueue(schedulingPolicy, machineLoad);
+        if (workMode == WorkMode.ITEM) {
+            itemQueue = new ItemQueue(this, schedulingPolicy, machineLoad, menu, machineCapacity);
+        }
+
+        // Create Cook threads
+        Thread[] cooks = new Thread[numCooks];
+        for (int index = 0; index < numCooks; index++) {
+            Cook cook = new Cook("Cook " + index, this);
+            cookList.add(cook);
+            cooks[index] = executionMode.newThread(cook);
+        }
+        ShopMBeans mbeans = jmxEnabled ? ShopMBeans.register(this) : null;
+        for (int index = 0; index < numCooks; index++) {
+            cooks[index].start();
+        }
+
+
+        // Build the customers, each with an order assigned.
+        List<Customer> customerList = createCustomers(this, numCustomers, randomOrders, orderGenerator, menu);
+        Thread[] customers = new Thread[numCustomers];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = executionMode.newThread(customerList.get(i));
+        }
+        arrivalNanos = arrivalSchedule.arrivals(numCustomers, orderGenerator.arrivalRandom());
+        steadyState = new SteadyStateStats(warmupMillis * 1_000_000L,
+                numCustomers == 0 ? 0 : arrivalNanos[numCustomers - 1]);
+        customerThreads = customers;
+
+        try {
+            // Start the customers on schedule, until the shop is stopped -> they will try
+            // to enter the Coffee Shop
+            arrivalsStartedNanos = System.nanoTime();
+            for (int i = 0; i < customers.length; i++) {
+                long delayNanos = arrivalsStartedNanos + arrivalNanos[i] - System.nanoTime();
+                if (delayNanos > 0 && stopping.await(delayNanos, TimeUnit.NANOSECONDS) || stopped) {
+                    break;
+                }
+                customers[i].start();
+            }
+
+            // Wait for the customer threads to end
+            for (Thread customer : customers) {
+                customer.join();
+            }
+
+            // Tell the cooks there are no more orders and wait for them to end
+            orderList.close();
+            if (itemQueue != null) {
+                itemQueue.close();
+            }
+            for (Thread cook : cooks) cook.join();
+
+            // Stop the machines' workers
+            for (Machine machine : machines) {
+                machine.shutdown();
+            }
+
+        } catch (InterruptedException e) {
+            System.out.println("Simulation thread interrupted.");
+        }
+
+        // Shut down machines
+        for (Machine machine : machines) {
+            logEvent(SimulationEvent.machineEnding(machine));
+        }
+
+        // Done with simulation
+        logEvent(SimulationEvent.endSimulation());
+        try {
+            eventLog.close();
+        } finally {
+            runNanos = System.nanoTime() - started;
+            if (mbeans != null) {
+                mbeans.unregister();
+            }
+        }
+
+        return eventLog.getEvents();
+    }
+
+    /**
+     * Builds the customers of a simulation run, numbered from 0, with the
+     * orders of the given generator from the given menu.  The customers
+     * belong to the given shop, if any.
+     */
+    static List<Customer> createCustomers(CoffeeShop shop, int numCustomers, boolean randomOrders,
+                                          OrderGenerator orderGenerator, Menu menu) {
+        List<List<Food>> orders = orderGenerator.orders(numCustomers, randomOrders, menu);
+        List<Customer> customers = new ArrayList<Customer>(numCustomers);
+        for (int i = 0; i < numCustomers; i++) {
+            customers.add(new Customer("Customer " + i, orders.get(i), i, shop));
+        }
+        return customers;
+    }
+
+    /**
+     * Places the customer's order, for the cooks to take as a whole or item
+     * by item depending on the work mode.
+     */
+    void placeOrder(Customer customer) {
+        if (itemQueue != null) {
+            itemQueue.put(customer);
+        } else {
+            orderList.put(customer);
+        }
+    }
+
+    /**
+     * Records the stages of a customer's visit, from the times at which it
+     * started, entered, placed its order, received it and left.  Its
+     * steady-state visit runs from when it was due rather than from when its
+     * thread started, so that a late start counts against the shop.
+     */
+    void recordVisit(Customer customer, long started, long entered, long placed, long received, long left) {
+        latencies.recordVisit(started, entered, placed, received, left);
+        steadyState.record(arrivalNanos[customer.getOrderNum()], left - arrivalsStartedNanos);
+    }
+
+    /**
+     * Records that the customer was shed by the admission policy.
+     */
+    void recordShed(Customer customer) {
+        steadyState.recordShed(arrivalNanos[customer.getOrderNum()]);
+    }
+
+    /**
+     * The items of the placed orders, once the shop has started running in
+     * WorkMode.ITEM; null otherwise.
+     */
+    ItemQueue getItemQueue() {
+        return itemQueue;
+    }
+
+    /**
+     * The machine making the given food, found by its position on the menu.
+     *
+     * @throws IllegalArgumentException if the food isn't on the menu
+     */
+    Machine machineFor(Food food) {
+        int index = menu.indexOf(food);
+        if (index < 0) {
+            throw new IllegalArgumentException(food + " is not on the menu");
+        }
+        return machines[index];
+    }
+
+    /**
+     * Orders placed and not yet taken by a cook, once the shop has started
+     * running; doesn't lock the queues.
+     */
+    public int getOrdersWaiting() {
+        return itemQueue != null ? itemQueue.ordersWaiting() : orderList.size();
+    }
+
+    /**
+     * The queue customers place their orders in, once the shop has started
+     * running.
+     */
+    public OrderQueue getOrderList() {
+        return orderList;
+    }
+
+    /**
+     * The tables of the shop, once it has started running.
+     */
+    public Seating getSeating() {
+        return seating;
+    }
+
+    /**
+     * Durations of the stages of every customer's visit.
+     */
+    public StageLatencies getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Throughput and latencies of the customers arriving after the warm-up,
+     * once the shop has started running.
+     */
+    public SteadyStateStats getSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * The machine making the given food, once the shop has started running,
+     * or null if the food isn't on the menu.
+     */
+    public Machine getMachine(Food food) {
+        int index = menu.indexOf(food);
+        return index < 0 ? null : machines[index];
+    }
+
+    public Machine getGrill() {
+        return getMachine(FoodType.burger);
+    }
+
+    public Machine getFryer() {
+        return getMachine(FoodType.fries);
+    }
+
+    public Machine getCoffeeMaker2000() {
+        return getMachine(FoodType.coffee);
+    }
+
+    /**
+     * The cooks of the shop, once it has started running.
+     */
+    public List<Cook> getCooks() {
+        return cookList;
+    }
+
+    /**
+     * How long the last run took, in nanoseconds.
+     */
+    public long getRunNanos() {
+        return runNanos;
+    }
+
+    /**
+     * Orders served per second of the last run; customers shed by the
+     * admission policy aren't served.
+     */
+    public double getOrdersPerSecond() {
+        return runNanos == 0 ? 0.0 : seating.getCustomersSeated() * 1e9 / runNanos;
+    }
+
+    /**
+     * The fraction of the last run the cooks spent with items cooking,
+     * averaged over the cooks.
+     */
+    public double getCookUtilization() {
+        return cookUtilization(cookList, runNanos);
+    }
+
+    static double cookUtilization(List<Cook> cooks, long elapsedNanos) {
+        if (cooks.isEmpty() || elapsedNanos == 0) {
+            return 0.0;
+        }
+        long busyNanos = 0;
+        for (Cook cook : cooks) {
+            busyNanos += cook.getOrderTimings().getBusyNanos();
+        }
+        return (double) busyNanos / cooks.size() / elapsedNanos;
+    }
+
+    /**
+     * The machines of the shop, in menu order, once it has started running.
+     */
+    public List<Machine> getMachines() {
+        return List.of(machines);
+    }
+}
@@ -0,0 +1,85 @@
+package coffeeshop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A CoffeeShopFleet runs a chain of independent coffee shops concurrently
+ * on a fork-join pool, one task per shop, and reports on each of them and
+ * on the whole fleet.
+ * <p>
+ * A shop's task spends most of its time waiting for the shop's own actor
+ * threads, so it runs as a ForkJoinPool.ManagedBlocker: the pool starts
+ * spare workers while shops wait, and the fleet isn't limited to one shop
+ * per core.
+ */
+public class CoffeeShopFleet {
+    private final List<CoffeeShop> shops;
+    private final ForkJoinPool pool;
+    private final List<CoffeeShopReport> reports = new ArrayList<CoffeeShopReport>();
+
+    public CoffeeShopFleet(List<CoffeeShop> shops) {
+        this(shops, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param shops the shops of the fleet; each should keep its events in an
+     *              EventStore (which it does by default) to be reported on
+     * @param pool  the pool the shops are run on
+     */
+    public CoffeeShopFleet(List<CoffeeShop> shops, ForkJoinPool pool) {
+        this.shops = shops;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs every shop to completion and returns the fleet-wide report.  Each
+     * shop's events are reported on as soon as it ends and then dropped.
+     */
+    public CoffeeShopReport run() {
+        List<ForkJoinTask<CoffeeShopReport>> tasks = new ArrayList<ForkJoinTask<CoffeeShopReport>>();
+        for (CoffeeShop shop : shops) {
+            tasks.add(ForkJoinTask.adapt(() -> CoffeeShopReport.of(runBlocking(shop))));
+        }
+        pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+
+        reports.clear();
+        for (ForkJoinTask<CoffeeShopReport> task : tasks) {
+            reports.add(task.join());
+        }
+        return CoffeeShopReport.merge(reports);
+    }
+
+    /**
+     * The report of each shop of the last run, in the order of the shops.
+     */
+    public List<CoffeeShopReport> getShopReports() {
+        return new ArrayList<CoffeeShopReport>(reports);
+    }
+
+    private static List<SimulationEvent> runBlocking(CoffeeShop shop) throws InterruptedException {
+        ShopRun run = new ShopRun(shop);
+        ForkJoinPool.managedBlock(run);
+        return run.events;
+    }
+
+    private static final class ShopRun implements ForkJoinPool.ManagedBlocker {
+        private final CoffeeShop shop;
+        private List<SimulationEvent> events;
+
+        ShopRun(CoffeeShop shop) {
+            this.shop = shop;
+        }
+
+        public boolean block() {
+            events = shop.run();
+            return true;
+        }
+
+        public boolean isReleasable() {
+            return events != null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package coffeeshop;
+
+/**
+ * Live figures of a running CoffeeShop, exposed over JMX (see
+ * CoffeeShop.setJmxEnabled()).  Every figure is read from a counter the
+ * shop keeps up to date as it runs, never from its event log.
+ */
+public interface CoffeeShopMXBean {
+
+    /**
+     * Orders placed and not yet taken by a cook.
+     */
+    int getOrdersWaiting();
+
+    int getCustomersSeated();
+
+    int getFreeTables();
+
+    /**
+     * Customers waiting in line for a table.
+     */
+    int getLineLength();
+
+    /**
+     * Customers turned away, balking or reneging under the admission policy.
+     */
+    long getCustomersShed();
+
+    /**
+     * Cooks working on an order, or on an item in WorkMode.ITEM.
+     */
+    int getBusyCooks();
+
+    int getIdleCooks();
+
+    /**
+     * Events logged since the shop started running.
+     */
+    long getEventCount();
+
+    /**
+     * Events logged per second since the previous read of this attribute,
+     * or since the shop started running for the first read.
+     */
+    double getEventsPerSecond();
+}
@@ -0,0 +1,268 @@
+package coffeeshop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CoffeeShopReport holds every report of CoffeeShopReportStreams, computed
+ * in a single pass over an event log into primitive counters indexed by
+ * food and by cook.  Once built, each report is a lookup.  The reports of
+ * several shops can be merged into fleet-wide ones.
+ */
+public class CoffeeShopReport {
+    private final Map<Food, Integer> foodIndex = new IdentityHashMap<Food, Integer>();
+    private final List<Food> foods = new ArrayList<Food>();
+    private long[] foodCounts = new long[4];
+
+    private final Map<Cook, Integer> cookIndex = new IdentityHashMap<Cook, Integer>();
+    private final List<Cook> cooks = new ArrayList<Cook>();
+    private final List<List<List<Food>>> ordersReceivedByCook = new ArrayList<List<List<Food>>>();
+    private long[] ordersCompletedByCook = new long[8];
+    private boolean[] cookEnded = new boolean[8];
+    private long totalOrdersCompleted;
+
+    private long customersArrived;
+    private long customersServed;
+    private long customersTurnedAway;
+    private long customersBalked;
+    private long customersReneged;
+
+    private final Map<Cook, Double> averageCookingTimeByCook = new HashMap<Cook, Double>();
+
+    /**
+     * Builds the report of the given events, reading each of them once.
+     */
+    public static CoffeeShopReport of(Iterable<SimulationEvent> events) {
+        CoffeeShopReport report = new CoffeeShopReport();
+        for (SimulationEvent event : events) {
+            report.add(event);
+        }
+        report.finish();
+        return report;
+    }
+
+    /**
+     * Merges the reports of several shops into one, as if all their events
+     * were in a single log: food counts and order totals add up, and the
+     * per-cook reports cover the cooks of every shop.
+     */
+    public static CoffeeShopReport merge(Collection<CoffeeShopReport> reports) {
+        CoffeeShopReport merged = new CoffeeShopReport();
+        for (CoffeeShopReport report : reports) {
+            for (int food = 0; food < report.foods.size(); food++) {
+                int index = merged.indexOf(report.foods.get(food));
+                merged.foodCounts[index] += report.foodCounts[food];
+            }
+            for (int cook = 0; cook < report.cooks.size(); cook++) {
+                int index = merged.indexOf(report.cooks.get(cook));
+                merged.ordersReceivedByCook.get(index).addAll(report.ordersReceivedByCook.get(cook));
+                merged.ordersCompletedByCook[index] += report.ordersCompletedByCook[cook];
+                merged.cookEnded[index] |= report.cookEnded[cook];
+            }
+            merged.totalOrdersCompleted += report.totalOrdersCompleted;
+            merged.customersArrived += report.customersArrived;
+            merged.customersServed += report.customersServed;
+            merged.customersTurnedAway += report.customersTurnedAway;
+            merged.customersBalked += report.customersBalked;
+            merged.customersReneged += report.customersReneged;
+            merged.averageCookingTimeByCook.putAll(report.averageCookingTimeByCook);
+        }
+        return merged;
+    }
+
+    private void add(SimulationEvent event) {
+        switch (event.getEvent()) {
+            case CustomerStarting:
+                customersArrived++;
+                break;
+            case CustomerLeavingCoffeeShop:
+                customersServed++;
+                break;
+            case CustomerTurnedAway:
+                customersTurnedAway++;
+                break;
+            case CustomerBalked:
+                customersBalked++;
+                break;
+            case CustomerReneged:
+                customersReneged++;
+                break;
+            case CookReceivedOrder: {
+                int cook = indexOf(event.getCook());
+                ordersReceivedByCook.get(cook).add(event.getOrderFood());
+                for (Food food : event.getOrderFood()) {
+                    // Index first: indexOf() may grow the array
+                    int index = indexOf(food);
+                    foodCounts[index]++;
+                }
+                break;
+            }
+            case CookCompletedOrder: {
+                int cook = indexOf(event.getCook());
+                ordersCompletedByCook[cook]++;
+                totalOrdersCompleted++;
+                break;
+            }
+            case CookEnding: {
+                int cook = indexOf(event.getCook());
+                cookEnded[cook] = true;
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void finish() {
+        for (int cook = 0; cook < cooks.size(); cook++) {
+            if (cookEnded[cook]) {
+                averageCookingTimeByCook.put(cooks.get(cook), cooks.get(cook).getOrderTimings().getAverageMillis());
+            }
+        }
+    }
+
+    private int indexOf(Food food) {
+        Integer index = foodIndex.get(food);
+        if (index == null) {
+            index = foods.size();
+            foodIndex.put(food, index);
+            foods.add(food);
+            if (index == foodCounts.length) {
+                foodCounts = Arrays.copyOf(foodCounts, index * 2);
+            }
+        }
+        return index;
+    }
+
+    private int indexOf(Cook cook) {
+        Integer index = cookIndex.get(cook);
+        if (index == null) {
+            index = cooks.size();
+            cookIndex.put(cook, index);
+            cooks.add(cook);
+            ordersReceivedByCook.add(new ArrayList<List<Food>>());
+            if (index == ordersCompletedByCook.length) {
+                ordersCompletedByCook = Arrays.copyOf(ordersCompletedByCook, index * 2);
+                cookEnded = Arrays.copyOf(cookEnded, index * 2);
+            }
+        }
+        return index;
+    }
+
+    /* Orders */
+
+    public List<List<Food>> getOrdersByCook(Cook cook) {
+        Integer index = cookIndex.get(cook);
+        if (index == null) {
+            return new ArrayList<List<Food>>();
+        }
+        return new ArrayList<List<Food>>(ordersReceivedByCook.get(index));
+    }
+
+    public Map<Cook, Collection<List<Food>>> getMapOrdersByCook() {
+        Map<Cook, Collection<List<Food>>> ordersByCook = new HashMap<Cook, Collection<List<Food>>>();
+        for (int cook = 0; cook < cooks.size(); cook++) {
+            if (!ordersReceivedByCook.get(cook).isEmpty()) {
+                ordersByCook.put(cooks.get(cook), new ArrayList<List<Food>>(ordersReceivedByCook.get(cook)));
+            }
+        }
+        return ordersByCook;
+    }
+
+    public Map<Cook, Long> getOrdersNumByCook() {
+        Map<Cook, Long> ordersNumByCook = new HashMap<Cook, Long>();
+        for (int cook = 0; cook < cooks.size(); cook++) {
+            if (ordersCompletedByCook[cook] > 0) {
+                ordersNumByCook.put(cooks.get(cook), ordersCompletedByCook[cook]);
+            }
+        }
+        return ordersNumByCook;
+    }
+
+    public Map<Cook, Double> getPercentageOrdersByCook() {
+        Map<Cook, Double> percentageByCook = new HashMap<Cook, Double>();
+        for (int cook = 0; cook < cooks.size(); cook++) {
+            if (ordersCompletedByCook[cook] > 0) {
+                percentageByCook.put(cooks.get(cook),
+                        (double) ordersCompletedByCook[cook] * 100 / totalOrdersCompleted);
+            }
+        }
+        return percentageByCook;
+    }
+
+    public long getTotalOrdersCompleted() {
+        return totalOrdersCompleted;
+    }
+
+    /* Customers */
+
+    public long getCustomersArrived() {
+        return customersArrived;
+    }
+
+    public long getCustomersServed() {
+        return customersServed;
+    }
+
+    public long getCustomersTurnedAway() {
+        return customersTurnedAway;
+    }
+
+    public long getCustomersBalked() {
+        return customersBalked;
+    }
+
+    public long getCustomersReneged() {
+        return customersReneged;
+    }
+
+    /**
+     * Customers turned away, balking or reneging under the admission policy.
+     */
+    public long getCustomersShed() {
+        return customersTurnedAway + customersBalked + customersReneged;
+    }
+
+    /**
+     * The fraction of the customers who arrived and were served, from 0 to 1.
+     */
+    public double getServedRate() {
+        return customersArrived == 0 ? 0.0 : (double) customersServed / customersArrived;
+    }
+
+    /**
+     * The fraction of the customers who arrived and were shed, from 0 to 1.
+     */
+    public double getShedRate() {
+        return customersArrived == 0 ? 0.0 : (double) getCustomersShed() / customersArrived;
+    }
+
+    /* Food */
+
+    /**
+     * Number of items of the given food in the orders cooks received.
+     */
+    public long getFoodCount(Food food) {
+        Integer index = foodIndex.get(food);
+        return index == null ? 0 : foodCounts[index];
+    }
+
+    public Map<String, Long> getFoodCountByType() {
+        Map<String, Long> countByType = new HashMap<String, Long>();
+        for (int food = 0; food < foods.size(); food++) {
+            countByType.merge(foods.get(food).toString(), foodCounts[food], Long::sum);
+        }
+        return countByType;
+    }
+
+    /* Cooking time */
+
+    public Map<Cook, Double> getAverageCookingTimeByCook() {
+        return new HashMap<Cook, Double>(averageCookingTimeByCook);
+    }
+}
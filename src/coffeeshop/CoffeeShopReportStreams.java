@@ -1,109 +1,164 @@
 package coffeeshop;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
+/**
+ * Reports on the events of a simulation.  Each query reads the events once
+ * and computes only its own report, into primitive counters; to ask for
+ * several reports of the same events, get their CoffeeShopReport once with
+ * report() and query it instead.  Nothing is kept between queries, so the
+ * events may keep changing in between.
+ */
 public class CoffeeShopReportStreams {
+
+    /**
+     * Returns every report of the given events, e.g. of a list or of a
+     * MappedEventLog streaming them from a file.
+     */
+    public CoffeeShopReport report(Iterable<SimulationEvent> events) {
+        return CoffeeShopReport.of(events);
+    }
+
     public List<List<Food>> getOrdersByCook(List<SimulationEvent> events, Cook cook) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookReceivedOrder)
-                .filter(event -> event.getCook() == cook)
-                .map(SimulationEvent::getOrderFood)
-                .collect(Collectors.toList());
+        List<List<Food>> orders = new ArrayList<List<Food>>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder && event.getCook() == cook) {
+                orders.add(event.getOrderFood());
+            }
+        }
+        return orders;
     }
 
     public Map<Cook, Collection<List<Food>>> getMapOrdersByCook(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookReceivedOrder)
-                .collect(Collectors.groupingBy(SimulationEvent::getCook, Collectors.collectingAndThen(
-                        Collectors.toList(),
-                        list -> list.stream().map(SimulationEvent::getOrderFood).collect(Collectors.toList()))));
+        Map<Cook, Collection<List<Food>>> ordersByCook = new HashMap<Cook, Collection<List<Food>>>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder) {
+                ordersByCook.computeIfAbsent(event.getCook(), cook -> new ArrayList<List<Food>>())
+                        .add(event.getOrderFood());
+            }
+        }
+        return ordersByCook;
     }
 
     public long getNumBurgersCooked(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookReceivedOrder)
-                .map(SimulationEvent::getOrderFood)
-                .flatMap(List::stream)
-                .filter(food -> food == FoodType.burger)
-                .count();
+        return getFoodCount(events, FoodType.burger);
     }
 
     public long getNumFriesCooked(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookReceivedOrder)
-                .map(SimulationEvent::getOrderFood)
-                .flatMap(List::stream)
-                .filter(food -> food == FoodType.fries)
-                .count();
+        return getFoodCount(events, FoodType.fries);
     }
 
     public long getNumCoffeeCooked(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookReceivedOrder)
-                .map(SimulationEvent::getOrderFood)
-                .flatMap(List::stream)
-                .filter(food -> food == FoodType.coffee)
-                .count();
+        return getFoodCount(events, FoodType.coffee);
+    }
+
+    /**
+     * Number of items of the given food in the orders cooks received.
+     */
+    public long getFoodCount(List<SimulationEvent> events, Food food) {
+        long count = 0;
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder) {
+                for (Food item : event.getOrderFood()) {
+                    if (item == food) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
     }
 
     public Map<String, Long> getFoodCountByType(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookReceivedOrder)
-                .map(SimulationEvent::getOrderFood)
-                .flatMap(List::stream)
-                .collect(Collectors.groupingBy(Food::toString, Collectors.counting()));
+        // Counted by food, which is cheaper than by name, then merged by name
+        Map<Food, long[]> countByFood = new HashMap<Food, long[]>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder) {
+                for (Food food : event.getOrderFood()) {
+                    countByFood.computeIfAbsent(food, item -> new long[1])[0]++;
+                }
+            }
+        }
+        Map<String, Long> countByType = new HashMap<String, Long>();
+        countByFood.forEach((food, count) -> countByType.merge(food.toString(), count[0], Long::sum));
+        return countByType;
     }
 
     public Map<Cook, Long> getOrdersNumByCook(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookCompletedOrder)
-                .map(SimulationEvent::getCook)
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        Map<Cook, long[]> completedByCook = new HashMap<Cook, long[]>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookCompletedOrder) {
+                completedByCook.computeIfAbsent(event.getCook(), cook -> new long[1])[0]++;
+            }
+        }
+        Map<Cook, Long> ordersNumByCook = new HashMap<Cook, Long>();
+        completedByCook.forEach((cook, count) -> ordersNumByCook.put(cook, count[0]));
+        return ordersNumByCook;
     }
 
     public Map<Cook, Double> getPercentageOrdersByCook(List<SimulationEvent> events) {
         Map<Cook, Long> ordersNumByCook = getOrdersNumByCook(events);
-        Long numTotalOrders = ordersNumByCook
-                .values()
-                .stream()
-                .reduce(Long::sum)
-                .orElse(0L);
-
-        return ordersNumByCook
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().doubleValue() * 100 / numTotalOrders));
+        long totalOrders = 0;
+        for (long orders : ordersNumByCook.values()) {
+            totalOrders += orders;
+        }
+        Map<Cook, Double> percentageByCook = new HashMap<Cook, Double>();
+        for (Map.Entry<Cook, Long> entry : ordersNumByCook.entrySet()) {
+            percentageByCook.put(entry.getKey(), (double) entry.getValue() * 100 / totalOrders);
+        }
+        return percentageByCook;
     }
 
     public Map<Cook, Double> getAverageCookingTimeByCook(List<SimulationEvent> events) {
-        return events
-                .stream()
-                .filter(event -> event.getEvent() == SimulationEvent.EventType.CookEnding)
-                .map(SimulationEvent::getCook)
-                .collect(Collectors.toMap(Function.identity(), cook -> {
-                            Map<Integer, Pair<Instant, Instant>> orderStartEnd = cook.getOrderStartEnd();
-                            return orderStartEnd
-                                    .values()
-                                    .stream()
-                                    .mapToLong(pair -> Duration.between(pair.getK(), pair.getV()).toMillis())
-                                    .average()
-                                    .orElse(Double.MAX_VALUE);
-                        }
-                ));
+        Map<Cook, Double> averageByCook = new HashMap<Cook, Double>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookEnding) {
+                averageByCook.put(event.getCook(), event.getCook().getOrderTimings().getAverageMillis());
+            }
+        }
+        return averageByCook;
+    }
+
+    /**
+     * The fraction of the customers who arrived and were served, from 0 to 1.
+     */
+    public double getServedRate(List<SimulationEvent> events) {
+        long arrived = 0;
+        long served = 0;
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CustomerStarting) {
+                arrived++;
+            } else if (event.getEvent() == SimulationEvent.EventType.CustomerLeavingCoffeeShop) {
+                served++;
+            }
+        }
+        return arrived == 0 ? 0.0 : (double) served / arrived;
     }
-}
 
+    /**
+     * The fraction of the customers who arrived and were shed, from 0 to 1.
+     */
+    public double getShedRate(List<SimulationEvent> events) {
+        long arrived = 0;
+        long shed = 0;
+        for (SimulationEvent event : events) {
+            switch (event.getEvent()) {
+                case CustomerStarting:
+                    arrived++;
+                    break;
+                case CustomerTurnedAway:
+                case CustomerBalked:
+                case CustomerReneged:
+                    shed++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return arrived == 0 ? 0.0 : (double) shed / arrived;
+    }
+}
@@ -0,0 +1,183 @@
+package coffeeshop;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * CompactEventStore keeps events in parallel primitive arrays instead of as
+ * SimulationEvent objects: for each event, a byte for its type, the interned
+ * id of the actor it is about (customer, cook or machine), a byte for the
+ * interned food and its order number, i.e. 10 bytes per event.  The food
+ * lists of orders are kept once per order, and the parameters of the
+ * simulation and machine starting events on the side.
+ * <p>
+ * getEvents() returns a read-only view rebuilding each event when it is
+ * read, with the very same actors and foods as the logged events, so the
+ * existing report code works on it unchanged.
+ */
+public class CompactEventStore implements EventStore {
+    private static final SimulationEvent.EventType[] TYPES = SimulationEvent.EventType.values();
+    private static final int NONE = -1;
+    private static final byte NO_FOOD = 0;
+    private static final int MAX_FOODS = 255;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] actors = new int[INITIAL_CAPACITY];
+    private byte[] foods = new byte[INITIAL_CAPACITY];
+    private int[] orderNumbers = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final List<Object> actorTable = new ArrayList<Object>();
+    private final Map<Object, Integer> actorIds = new IdentityHashMap<Object, Integer>();
+    private final List<Food> foodTable = new ArrayList<Food>();
+    private final Map<Food, Integer> foodIds = new IdentityHashMap<Food, Integer>();
+    private final Map<Integer, List<Food>> orderFoodByNumber = new HashMap<Integer, List<Food>>();
+    private final Map<Integer, int[]> simParamsByIndex = new HashMap<Integer, int[]>();
+
+    public void write(List<SimulationEvent> batch) {
+        for (SimulationEvent event : batch) {
+            add(event);
+        }
+    }
+
+    /**
+     * Appends an event to the store.
+     */
+    public void add(SimulationEvent event) {
+        if (size == types.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            types = Arrays.copyOf(types, capacity);
+            actors = Arrays.copyOf(actors, capacity);
+            foods = Arrays.copyOf(foods, capacity);
+            orderNumbers = Arrays.copyOf(orderNumbers, capacity);
+        }
+
+        Object actor = event.getCustomer() != null ? event.getCustomer()
+                : event.getCook() != null ? event.getCook()
+                : event.getMachine();
+        types[size] = (byte) event.getEvent().ordinal();
+        actors[size] = actor == null ? NONE : intern(actor, actorIds, actorTable);
+        foods[size] = event.getFood() == null ? NO_FOOD : foodCode(event.getFood());
+        orderNumbers[size] = event.getOrderNumber();
+        if (event.getOrderFood() != null) {
+            orderFoodByNumber.putIfAbsent(event.getOrderNumber(), event.getOrderFood());
+        }
+        if (event.simParams != null) {
+            simParamsByIndex.put(size, event.simParams);
+        }
+        size++;
+    }
+
+    /**
+     * Foods are stored as their interned id plus one, in an unsigned byte,
+     * so that zero stands for no food.
+     */
+    private byte foodCode(Food food) {
+        int id = intern(food, foodIds, foodTable);
+        if (id >= MAX_FOODS) {
+            throw new IllegalStateException("More than " + MAX_FOODS + " foods in one event store");
+        }
+        return (byte) (id + 1);
+    }
+
+    private static <T> int intern(T value, Map<T, Integer> ids, List<T> table) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = table.size();
+            ids.put(value, id);
+            table.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Trims the arrays to the number of events once the log is closed.
+     */
+    public void close() {
+        types = Arrays.copyOf(types, size);
+        actors = Arrays.copyOf(actors, size);
+        foods = Arrays.copyOf(foods, size);
+        orderNumbers = Arrays.copyOf(orderNumbers, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate number of bytes taken by the per-event arrays.
+     */
+    public long getEncodedBytes() {
+        return (long) types.length * (Byte.BYTES + Integer.BYTES + Byte.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Rebuilds the event at the given index.
+     */
+    public SimulationEvent get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        SimulationEvent.EventType type = TYPES[types[index]];
+        Object actor = actors[index] == NONE ? null : actorTable.get(actors[index]);
+        Food food = foods[index] == NO_FOOD ? null : foodTable.get((foods[index] & 0xFF) - 1);
+        int orderNumber = orderNumbers[index];
+
+        Cook cook = null;
+        Customer customer = null;
+        Machine machine = null;
+        if (actor instanceof Cook) {
+            cook = (Cook) actor;
+        } else if (actor instanceof Customer) {
+            customer = (Customer) actor;
+        } else if (actor instanceof Machine) {
+            machine = (Machine) actor;
+        }
+
+        List<Food> orderFood = null;
+        switch (type) {
+            case CustomerPlacedOrder:
+            case CustomerReceivedOrder:
+            case CookReceivedOrder:
+                orderFood = orderFoodByNumber.get(orderNumber);
+                break;
+            default:
+                break;
+        }
+
+        int[] simParams = null;
+        if (type == SimulationEvent.EventType.SimulationStarting
+                || type == SimulationEvent.EventType.MachineStarting) {
+            simParams = simParamsByIndex.get(index);
+        }
+
+        return SimulationEvent.restore(type, cook, customer, machine, food, orderFood,
+                orderNumber, simParams);
+    }
+
+    /**
+     * Returns a read-only view of the stored events.  Events are rebuilt on
+     * each access, so two reads of the same index return distinct objects
+     * with the same fields.
+     */
+    public List<SimulationEvent> getEvents() {
+        return new EventView();
+    }
+
+    private class EventView extends AbstractList<SimulationEvent> implements RandomAccess {
+        public SimulationEvent get(int index) {
+            return CompactEventStore.this.get(index);
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
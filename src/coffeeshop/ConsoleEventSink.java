@@ -0,0 +1,29 @@
+package coffeeshop;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Prints every event on its own line, one print call per batch.
+ */
+public class ConsoleEventSink implements EventSink {
+    private final PrintStream out;
+    private final StringBuilder text = new StringBuilder();
+
+    public ConsoleEventSink() {
+        this(System.out);
+    }
+
+    public ConsoleEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    public void write(List<SimulationEvent> batch) {
+        text.setLength(0);
+        for (SimulationEvent event : batch) {
+            text.append(event).append(System.lineSeparator());
+        }
+        out.print(text);
+        out.flush();
+    }
+}
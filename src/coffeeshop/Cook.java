@@ -1,10 +1,8 @@
 package coffeeshop;
 
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 
 /**
@@ -14,24 +12,40 @@ import java.util.Map;
  */
 public class Cook implements Runnable {
     private final String name;
-    private final Map<Integer, Pair<Instant, Instant>> orderStartEnd = new HashMap<>();
-    public List<Food> finishedFood = new LinkedList<Food>();
+    private final CoffeeShop shop;
+    private final OrderTimings orderTimings = new OrderTimings();
     private Customer currCustomer;
+    private volatile boolean busy;
 
     public Cook(String name) {
+        this(name, null);
+    }
+
+    /**
+     * A cook of the given shop; only cooks of a shop can run.
+     */
+    Cook(String name, CoffeeShop shop) {
         this.name = name;
+        this.shop = shop;
     }
 
     public Customer getCurrCustomer() {
         return currCustomer;
     }
 
-    public List<Food> getFinishedFood() {
-        return finishedFood;
+    /**
+     * Whether the cook is working on an order, or on an item in
+     * WorkMode.ITEM, rather than waiting for one.
+     */
+    public boolean isBusy() {
+        return busy;
     }
 
-    public Map<Integer, Pair<Instant, Instant>> getOrderStartEnd() {
-        return orderStartEnd;
+    /**
+     * How long this cook took to prepare each of its orders.
+     */
+    public OrderTimings getOrderTimings() {
+        return orderTimings;
     }
 
     public String toString() {
@@ -42,89 +56,119 @@ public class Cook implements Runnable {
      * This method executes as follows.  The cook tries to retrieve
      * orders placed by Customers.  For each order, a List<Food>, the
      * cook submits each Food item in the List to an appropriate
-     * Machine, by calling makeFood().  Once all machines have
-     * produced the desired Food, the order is complete, and the Customer
+     * Machine, by calling makeFood(), without waiting for the machines
+     * in between.  Once all machines have produced the desired Food, the
+     * order is complete, and the Customer
      * is notified.  The cook can then go to process the next order.
-     * If during its execution the cook is interrupted (i.e., some
-     * other thread calls the interrupt() method on it, which could
-     * raise InterruptedException if the cook is blocking), then it
+     * Should an item fail to cook, the cook gives up on its order, and its
+     * customer leaves without it.  Once the order queue is closed and
+     * empty, or if during its execution the cook is interrupted, it
      * terminates.
+     * <p>
+     * When the shop shares work item by item (WorkMode.ITEM), the cook
+     * instead takes single items, of any order, and tends each one while
+     * its machine cooks it.
      */
     public void run() {
 
-        Simulation.logEvent(SimulationEvent.cookStarting(this));
+        shop.logEvent(SimulationEvent.cookStarting(this));
         try {
-            while (true) {
+            if (shop.getWorkMode() == WorkMode.ITEM) {
+                cookItems();
+            } else {
+                cookOrders();
+            }
+        } catch (InterruptedException e) {
+            // Interrupted while waiting -> stop working, failing the order
+            // in hand so that its customer leaves
+            if (busy) {
+                failOrder(e);
+                busy = false;
+            }
+        }
+        shop.logEvent(SimulationEvent.cookEnding(this));
+    }
 
-                // Get the customer currently up next and take its order
-                synchronized (Simulation.orderList) {
+    /**
+     * Gives up on the order of the current customer, who then leaves
+     * without it.
+     */
+    private void failOrder(Throwable cause) {
+        shop.logEvent(SimulationEvent.cookFailedOrder(this, currCustomer.getOrderNum()));
+        currCustomer.failOrder(cause);
+    }
 
-                    while (Simulation.orderList.isEmpty()) {
-                        Simulation.orderList.wait();
-                    }
-                    currCustomer = Simulation.orderList.remove();
-                    Simulation.logEvent(SimulationEvent.cookReceivedOrder(this,
-                            currCustomer.getOrder(), currCustomer.getOrderNum()));
-                    Simulation.orderList.notifyAll();
-                }
-                //sends food to specific machine
-                for (int index = 0; index < currCustomer.getOrder().size(); index++) {
-                    Food currFood = currCustomer.getOrder().get(index);
-                    if (currFood.equals(FoodType.burger)) {
-                        synchronized (Simulation.grill.getFoodList()) {
-                            while (!(Simulation.grill.getFoodList().size() < Simulation.grill.getCapacity())) {
-                                Simulation.grill.getFoodList().wait();
-                            }
-                            Simulation.logEvent(SimulationEvent.cookStartedFood(this,
-                                    FoodType.burger, currCustomer.getOrderNum()));
-                            Simulation.grill.makeFood(this, currCustomer.getOrderNum());
-                            Simulation.grill.getFoodList().notifyAll();
-
-                        }
-
-                    } else if (currFood.equals(FoodType.fries)) {
-                        synchronized (Simulation.fryer.getFoodList()) {
-                            while (!(Simulation.fryer.getFoodList().size() < Simulation.fryer.getCapacity())) {
-                                Simulation.fryer.getFoodList().wait();
-                            }
-                            Simulation.logEvent(SimulationEvent.cookStartedFood(this,
-                                    FoodType.fries, currCustomer.getOrderNum()));
-                            Simulation.fryer.makeFood(this, currCustomer.getOrderNum());
-                            Simulation.fryer.getFoodList().notifyAll();
-
-                        }
-
-                    } else {
-                        synchronized (Simulation.coffeeMaker2000.getFoodList()) {
-                            while (!(Simulation.coffeeMaker2000.getFoodList().size() < Simulation.coffeeMaker2000.getCapacity())) {
-                                Simulation.coffeeMaker2000.getFoodList().wait();
-                            }
-                            Simulation.logEvent(SimulationEvent.cookStartedFood(this,
-                                    FoodType.coffee, currCustomer.getOrderNum()));
-                            Simulation.coffeeMaker2000.makeFood(this, currCustomer.getOrderNum());
-                            Simulation.coffeeMaker2000.getFoodList().notifyAll();
-
-                        }
+    private void cookOrders() throws InterruptedException {
+        // Get the customer currently up next and take its order
+        while ((currCustomer = shop.getOrderList().take()) != null) {
+            busy = true;
+            long received = System.nanoTime();
+            orderTimings.orderReceived(currCustomer.getOrderNum(), received);
+            shop.logEvent(SimulationEvent.cookReceivedOrder(this,
+                    currCustomer.getOrder(), currCustomer.getOrderNum()));
+
+            // Send every food item to its machine at once; each machine
+            // cooks it as soon as it has a free slot
+            List<Food> order = currCustomer.getOrder();
+            CompletableFuture<?>[] cookedItems = new CompletableFuture<?>[order.size()];
+            for (int index = 0; index < order.size(); index++) {
+                Food currFood = order.get(index);
+                Machine machine = shop.machineFor(currFood);
+                shop.logEvent(SimulationEvent.cookStartedFood(this,
+                        machine.getMachineFoodType(), currCustomer.getOrderNum()));
+                cookedItems[index] = machine.makeFood(this, currCustomer.getOrderNum());
+            }
+
+            // The order is complete once its slowest item is
+            try {
+                CompletableFuture.allOf(cookedItems).get();
+            } catch (ExecutionException e) {
+                // An item couldn't be cooked -> fail the order, and carry on
+                failOrder(e.getCause());
+                busy = false;
+                continue;
+            }
+            shop.getLatencies().recordOrderPrepared(System.nanoTime() - received);
+            shop.logEvent(SimulationEvent.cookCompletedOrder(this, currCustomer.getOrderNum()));
+            currCustomer.completeOrder();
+            busy = false;
+        }
+    }
+
+    private void cookItems() throws InterruptedException {
+        ItemPool.Item item;
+        while ((item = shop.getItemQueue().take(this)) != null) {
+            busy = true;
+            currCustomer = item.getCustomer();
+            int orderNum = currCustomer.getOrderNum();
+            Food food = item.getFood();
+            if (food != null) {
+                shop.logEvent(SimulationEvent.cookStartedFood(this, food, orderNum));
+                try {
+                    shop.machineFor(food).makeFood(this, orderNum).get();
+                } catch (InterruptedException | ExecutionException e) {
+                    // The item couldn't be cooked -> fail its order, once, and
+                    // carry on unless interrupted
+                    if (shop.getItemQueue().fail(item)) {
+                        failOrder(e instanceof ExecutionException ? e.getCause() : e);
                     }
-                }
-                synchronized (finishedFood) {
-                    while (!(finishedFood.size() == currCustomer.getOrder().size())) {
-                        finishedFood.wait();
-                        finishedFood.notifyAll();
+                    busy = false;
+                    if (e instanceof InterruptedException) {
+                        throw (InterruptedException) e;
                     }
+                    continue;
                 }
-                Simulation.logEvent(SimulationEvent.cookCompletedOrder(this, currCustomer.getOrderNum()));
-
-                synchronized (Simulation.completedOrder) {
-                    Simulation.completedOrder.put(currCustomer, true);
-                    Simulation.completedOrder.notifyAll();
-                }
-                finishedFood = new LinkedList<Food>();
+                item.getReceivedBy().getOrderTimings().itemFinished(orderNum, System.nanoTime());
+            }
 
+            // Whoever finishes the last item completes the order, on behalf
+            // of the cook who received it
+            if (shop.getItemQueue().finish(item)) {
+                shop.getLatencies().recordOrderPrepared(System.nanoTime() - item.getReceivedNanos());
+                shop.logEvent(SimulationEvent.cookCompletedOrder(item.getReceivedBy(), orderNum));
+                currCustomer.completeOrder();
             }
-        } catch (InterruptedException e) {
-            // Cooks are interrupted after all customers leave
-            Simulation.logEvent(SimulationEvent.cookEnding(this));
+            busy = false;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package coffeeshop;
+
+/**
+ * Live figures of a Cook of a running CoffeeShop, exposed over JMX.
+ */
+public interface CookMXBean {
+
+    /**
+     * Whether the cook is working on an order, or on an item in
+     * WorkMode.ITEM, rather than waiting for one.
+     */
+    boolean isBusy();
+
+    /**
+     * Orders the cook has received so far.
+     */
+    int getOrdersReceived();
+
+    /**
+     * How long the cook has had items cooking, up to its last item done, in
+     * milliseconds.
+     */
+    double getBusyMillis();
+}
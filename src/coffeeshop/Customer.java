@@ -1,6 +1,8 @@
 package coffeeshop;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Customers are simulation actors that have two fields: a name, and a list
@@ -14,11 +16,26 @@ public class Customer implements Runnable {
     private final String name;
     private final List<Food> order;
     private final int orderNum;
+    private final CoffeeShop shop;
+    private final CompletableFuture<Void> orderCompletion = new CompletableFuture<Void>();
+    private long tableWaitNanos;
 
     public Customer(String name, List<Food> order) {
+        this(name, order, runningCounter++);
+    }
+
+    Customer(String name, List<Food> order, int orderNum) {
+        this(name, order, orderNum, null);
+    }
+
+    /**
+     * A customer of the given shop; only customers of a shop can run.
+     */
+    Customer(String name, List<Food> order, int orderNum, CoffeeShop shop) {
         this.name = name;
         this.order = order;
-        this.orderNum = runningCounter++;
+        this.orderNum = orderNum;
+        this.shop = shop;
     }
 
     public static void setRunningCounter(int runningCounter) {
@@ -37,58 +54,76 @@ public class Customer implements Runnable {
         return this.orderNum;
     }
 
+    /**
+     * How long this customer waited for a free table, in nanoseconds.
+     */
+    public long getTableWaitNanos() {
+        return tableWaitNanos;
+    }
+
+    void setTableWaitNanos(long tableWaitNanos) {
+        this.tableWaitNanos = tableWaitNanos;
+    }
+
+    /**
+     * Called by the cook who prepared this customer's order once it is
+     * complete; wakes up this customer, and only this customer.
+     */
+    public void completeOrder() {
+        orderCompletion.complete(null);
+    }
+
+    /**
+     * Called by a cook who can't complete this customer's order, e.g.
+     * because a machine failed; wakes up this customer, who leaves without
+     * it.
+     */
+    void failOrder(Throwable cause) {
+        orderCompletion.completeExceptionally(cause);
+    }
+
     public void run() {
         /* Log customer starting event */
-        Simulation.logEvent(SimulationEvent.customerStarting(this));
-
-        /* Wait to enter the Coffee Shop */
-        synchronized (Simulation.currCapacity) {
-            while (!(Simulation.currCapacity.size() < Simulation.events.get(0).simParams[2])) {
-                try {
-                    Simulation.currCapacity.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-
-            }
-            /* Customer entered -> log event */
-            Simulation.currCapacity.add(this);
-            Simulation.logEvent(SimulationEvent.customerEnteredCoffeeShop(this));
-            Simulation.currCapacity.notifyAll();
-        }
+        long started = System.nanoTime();
+        shop.logEvent(SimulationEvent.customerStarting(this));
 
-        /* Wait to place order */
-        synchronized (Simulation.orderList) {
-            Simulation.orderList.add(this);
-            Simulation.logEvent(SimulationEvent.customerPlacedOrder(this, this.order, this.orderNum));
-            Simulation.orderList.notifyAll();
+        /* Wait to enter the Coffee Shop, unless the admission policy sheds the customer */
+        AdmissionPolicy.Outcome admission = shop.getSeating().takeTable(shop.getAdmissionPolicy());
+        if (admission != AdmissionPolicy.Outcome.SEATED) {
+            shop.logEvent(SimulationEvent.customerShed(this, admission));
+            shop.recordShed(this);
+            return;
         }
 
-        /* Initialize order in completedOrder HashMap as not completed yet */
-        synchronized (Simulation.completedOrder) {
-            Simulation.completedOrder.put(this, false);
-        }
+        /* Customer entered -> log event */
+        long entered = System.nanoTime();
+        tableWaitNanos = entered - started;
+        shop.logEvent(SimulationEvent.customerEnteredCoffeeShop(this));
 
-        /* Wait for order to be completed */
-        synchronized (Simulation.completedOrder) {
-            while (!(Simulation.completedOrder.get(this))) {
-                try {
-                    Simulation.completedOrder.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-
-            /* Order complete -> log customer received order event */
-            Simulation.logEvent(SimulationEvent.customerReceivedOrder(this, this.order, this.orderNum));
-            Simulation.completedOrder.notifyAll();
-        }
+        /* Place order -> logged first, so that no cook can be seen taking it before */
+        long placed = System.nanoTime();
+        shop.logEvent(SimulationEvent.customerPlacedOrder(this, this.order, this.orderNum));
+        shop.placeOrder(this);
 
-        /* Exit the Coffee Shop */
-        synchronized (Simulation.currCapacity) {
-            Simulation.currCapacity.remove(this);
-            Simulation.logEvent(SimulationEvent.customerLeavingCoffeeShop(this));
-            Simulation.currCapacity.notifyAll();
+        /* Wait for order to be completed, or leave if it never will be */
+        try {
+            orderCompletion.join();
+        } catch (CompletionException e) {
+            shop.logEvent(SimulationEvent.customerLeavingCoffeeShop(this));
+            shop.getSeating().recordStay(System.nanoTime() - entered);
+            shop.getSeating().leaveTable();
+            return;
         }
+
+        /* Order complete -> log customer received order event */
+        long received = System.nanoTime();
+        shop.logEvent(SimulationEvent.customerReceivedOrder(this, this.order, this.orderNum));
+
+        /* Exit the Coffee Shop -> logged before the table can be taken again */
+        long left = System.nanoTime();
+        shop.logEvent(SimulationEvent.customerLeavingCoffeeShop(this));
+        shop.getSeating().recordStay(left - entered);
+        shop.getSeating().leaveTable();
+        shop.recordVisit(this, started, entered, placed, received, left);
     }
 }
\ No newline at end of file
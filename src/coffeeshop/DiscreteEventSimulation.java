@@ -0,0 +1,711 @@
+package coffeeshop;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * DiscreteEventSimulation is a second engine for the coffee shop, taking the
+ * same inputs as Simulation.runSimulation().  Instead of running every actor
+ * on its own thread and really sleeping for Food.cookTimeMS, it replays the
+ * customer/cook/machine protocol on a single thread against a virtual clock:
+ * the only things that take time are cooked items and the gaps between
+ * customer arrivals, and those are scheduled on a priority queue and
+ * completed by advancing the clock to their due time.
+ * <p>
+ * The returned events follow the same rules as those of the threaded engine
+ * (a customer enters only when a table is free, a cook submits all the items
+ * of its order at once, or takes items one by one in WorkMode.ITEM, a
+ * machine never cooks more than its capacity and cooks waiting items first
+ * come first served, ...), so the same reports and validations apply, but a
+ * run takes as long as the CPU needs rather than as long as the food needs.
+ * Events are written to sinks just like in the threaded
+ * engine; by default they are only kept in memory.
+ */
+public class DiscreteEventSimulation {
+    private final int numCustomers;
+    private final int numCooks;
+    private final int numTables;
+    private final int machineCapacity;
+    private final boolean randomOrders;
+    private final EventSink[] sinks;
+    private OrderGenerator orderGenerator = new OrderGenerator();
+    private OrderSchedulingPolicy schedulingPolicy = OrderSchedulingPolicy.fifo();
+    private WorkMode workMode = WorkMode.ORDER;
+    private long batchWindowMillis = -1;
+    private ArrivalSchedule arrivalSchedule = ArrivalSchedule.burst();
+    private long warmupMillis;
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.UNLIMITED;
+    private final List<SimulationEventListener> listeners = new ArrayList<SimulationEventListener>();
+
+    private final PriorityQueue<Scheduled> agenda = new PriorityQueue<Scheduled>();
+    private EventLog eventLog;
+    private long clockNanos;
+    private long sequence;
+
+    private final Queue<Customer> waitingForTable = new ArrayDeque<Customer>();
+    /* Whether each customer, by order number, is still waiting for a table; those who
+       reneged stay in waitingForTable until they come up and are skipped */
+    private boolean[] inLine;
+    private int renegedInLine;
+    private boolean stopped;
+    private boolean lineSentAway;
+    private final Seating seating;
+    private final StageLatencies latencies = new StageLatencies();
+    private SteadyStateStats steadyState;
+    /* Arrival time of every customer, by order number */
+    private long[] arrivalNanos;
+    private final WaitingOrders orderList = new WaitingOrders();
+    private ItemPool itemPool;
+    private final List<CookState> cooks = new ArrayList<CookState>();
+    private final Queue<CookState> idleCooks = new ArrayDeque<CookState>();
+    private int seatedCustomers;
+    private Menu menu = Menu.DEFAULT;
+    /* One machine per menu entry, in menu order */
+    private MachineState[] machines;
+
+    public DiscreteEventSimulation(int numCustomers, int numCooks,
+                                   int numTables,
+                                   int machineCapacity,
+                                   boolean randomOrders) {
+        this(numCustomers, numCooks, numTables, machineCapacity, randomOrders, new MemoryEventSink());
+    }
+
+    public DiscreteEventSimulation(int numCustomers, int numCooks,
+                                   int numTables,
+                                   int machineCapacity,
+                                   boolean randomOrders,
+                                   EventSink... sinks) {
+        this.numCustomers = numCustomers;
+        this.numCooks = numCooks;
+        this.numTables = numTables;
+        this.machineCapacity = machineCapacity;
+        this.randomOrders = randomOrders;
+        this.sinks = sinks;
+        this.seating = new Seating(numTables, true);
+    }
+
+    /**
+     * Runs a discrete-event simulation with the same parameters as
+     * {@link Simulation#runSimulation(int, int, int, int, boolean)} and
+     * returns its events.
+     */
+    public static List<SimulationEvent> runSimulation(
+            int numCustomers, int numCooks,
+            int numTables,
+            int machineCapacity,
+            boolean randomOrders
+    ) {
+        return new DiscreteEventSimulation(numCustomers, numCooks, numTables,
+                machineCapacity, randomOrders).run();
+    }
+
+    /**
+     * Virtual time elapsed in the simulation, in nanoseconds.
+     */
+    public long getClockNanos() {
+        return clockNanos;
+    }
+
+    /**
+     * Table statistics of the simulation, with waits in virtual time.
+     */
+    public Seating getSeating() {
+        return seating;
+    }
+
+    /**
+     * Durations of the stages of every customer's visit, in virtual time.
+     * The machines' histograms are also in virtual time.
+     */
+    public StageLatencies getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Throughput and latencies of the customers arriving after the warm-up,
+     * in virtual time, once the simulation has run.
+     */
+    public SteadyStateStats getSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * The machines of the simulation, in menu order, once it has run.
+     */
+    public List<Machine> getMachines() {
+        List<Machine> machineList = new ArrayList<Machine>(machines.length);
+        for (MachineState machine : machines) {
+            machineList.add(machine.machine);
+        }
+        return machineList;
+    }
+
+    /**
+     * Sets the foods the shop serves and the machines making them; the
+     * DEFAULT menu by default.  Must be called before run().
+     */
+    public void setMenu(Menu menu) {
+        this.menu = menu;
+    }
+
+    /**
+     * Seeds the random orders of the customers, so that simulations with the
+     * same seed and parameters log the same events.  Must be called before
+     * run().
+     */
+    public void setSeed(long seed) {
+        this.orderGenerator = new OrderGenerator(seed);
+    }
+
+    /**
+     * Sets how cooks pick the next order among the waiting ones; first come
+     * first served by default.  Must be called before run().
+     */
+    public void setSchedulingPolicy(OrderSchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+    /**
+     * Sets whether cooks take whole orders or single items; whole orders by
+     * default.  Must be called before run().
+     */
+    public void setWorkMode(WorkMode workMode) {
+        this.workMode = workMode;
+    }
+
+    /**
+     * Makes the machines cook in batches of up to their capacity, waiting at
+     * most the given window for a batch to fill up.  Must be called before
+     * run().
+     */
+    public void setBatchCooking(long windowMillis) {
+        this.batchWindowMillis = windowMillis;
+    }
+
+    /**
+     * Sets when the customers head to the coffee shop, in virtual time; all
+     * at once by default.  Must be called before run().
+     */
+    public void setArrivalSchedule(ArrivalSchedule arrivalSchedule) {
+        this.arrivalSchedule = arrivalSchedule;
+    }
+
+    /**
+     * Sets how long after the start of the run customers arrive before
+     * getSteadyState() counts them; 0 by default.  Must be called before
+     * run().
+     */
+    public void setWarmupMillis(long warmupMillis) {
+        this.warmupMillis = warmupMillis;
+    }
+
+    /**
+     * Sets what customers finding no free table do: wait for as long as it
+     * takes by default.  Must be called before run().
+     */
+    public void setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        this.admissionPolicy = admissionPolicy;
+    }
+
+    /**
+     * Orders served per second of virtual time; customers shed by the
+     * admission policy aren't served.
+     */
+    public double getOrdersPerSecond() {
+        return clockNanos == 0 ? 0.0 : seating.getCustomersSeated() * 1e9 / clockNanos;
+    }
+
+    /**
+     * The fraction of the virtual time the cooks spent with items cooking,
+     * averaged over the cooks.
+     */
+    public double getCookUtilization() {
+        List<Cook> cookList = new ArrayList<Cook>(cooks.size());
+        for (CookState cook : cooks) {
+            cookList.add(cook.cook);
+        }
+        return CoffeeShop.cookUtilization(cookList, clockNanos);
+    }
+
+    /**
+     * Registers a listener told about every event of this simulation as it
+     * is logged.  Must be called before run().
+     */
+    public void addListener(SimulationEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops the run early, from a listener: no more customers arrive, and
+     * those waiting in line for a table are turned away once the current
+     * event has been handled.  The customers already seated are served, and
+     * run() then returns as usual.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Runs the simulation to completion, or until stop() is called, and
+     * returns the events kept by the first EventStore among its sinks, or
+     * an empty list if there is none.  Can be called only once per
+     * instance.
+     */
+    public List<SimulationEvent> run() {
+        eventLog = new EventLog(sinks);
+        logEvent(SimulationEvent.startSimulation(numCustomers,
+                numCooks,
+                numTables,
+                machineCapacity));
+
+        machines = new MachineState[menu.size()];
+        for (int index = 0; index < machines.length; index++) {
+            Menu.Entry entry = menu.getEntries().get(index);
+            machines[index] = new MachineState(new Machine(entry.getMachineName(), entry.getFood(), machineCapacity));
+            if (batchWindowMillis >= 0) {
+                machines[index].machine.setBatchWindowMillis(batchWindowMillis);
+            }
+            logEvent(SimulationEvent.machineStarting(machines[index].machine, entry.getFood(), machineCapacity));
+        }
+
+        if (workMode == WorkMode.ITEM) {
+            itemPool = new ItemPool(schedulingPolicy, this::estimatedWaitNanos, menu, machineCapacity);
+        }
+        for (int index = 0; index < numCooks; index++) {
+            CookState cook = new CookState(new Cook("Cook " + index));
+            cooks.add(cook);
+            logEvent(SimulationEvent.cookStarting(cook.cook));
+            idleCooks.add(cook);
+        }
+
+        List<Customer> customers = CoffeeShop.createCustomers(null, numCustomers, randomOrders,
+                orderGenerator, menu);
+        arrivalNanos = arrivalSchedule.arrivals(numCustomers, orderGenerator.arrivalRandom());
+        inLine = new boolean[numCustomers];
+        steadyState = new SteadyStateStats(warmupMillis * 1_000_000L,
+                numCustomers == 0 ? 0 : arrivalNanos[numCustomers - 1]);
+
+        // Customers due at the start head to the coffee shop at once, as in the threaded
+        // engine; every later one is scheduled when the one before arrives
+        int arrived = 0;
+        while (arrived < numCustomers && arrivalNanos[arrived] == 0 && !stopped) {
+            arrive(customers.get(arrived++));
+        }
+        if (arrived < numCustomers) {
+            scheduleArrival(customers, arrived);
+        }
+
+        // Advance the clock from one cooked item to the next
+        Scheduled next;
+        sendLineAwayIfStopped();
+        while ((next = agenda.poll()) != null) {
+            clockNanos = next.timeNanos;
+            next.action.run();
+            sendLineAwayIfStopped();
+        }
+
+        for (CookState cook : cooks) {
+            logEvent(SimulationEvent.cookEnding(cook.cook));
+        }
+        for (MachineState machine : machines) {
+            logEvent(SimulationEvent.machineEnding(machine.machine));
+        }
+        logEvent(SimulationEvent.endSimulation());
+        eventLog.close();
+
+        return eventLog.getEvents();
+    }
+
+    private void logEvent(SimulationEvent event) {
+        for (SimulationEventListener listener : listeners) {
+            listener.onEvent(event);
+        }
+        eventLog.add(event);
+    }
+
+    private void schedule(long delayNanos, Runnable action) {
+        agenda.add(new Scheduled(clockNanos + delayNanos, sequence++, action));
+    }
+
+    /* Customer protocol */
+
+    private void scheduleArrival(List<Customer> customers, int index) {
+        schedule(arrivalNanos[index] - clockNanos, () -> {
+            if (stopped) {
+                return;
+            }
+            arrive(customers.get(index));
+            if (index + 1 < customers.size()) {
+                scheduleArrival(customers, index + 1);
+            }
+        });
+    }
+
+    private void arrive(Customer customer) {
+        logEvent(SimulationEvent.customerStarting(customer));
+        tryEnter(customer);
+    }
+
+    private void tryEnter(Customer customer) {
+        if (seatedCustomers < numTables) {
+            enter(customer);
+            return;
+        }
+        int line = waitingForTable.size() - renegedInLine;
+        AdmissionPolicy.Outcome admission = admissionPolicy.arrive(line, seating.estimatedWaitNanos(line));
+        if (admission != AdmissionPolicy.Outcome.WAITING) {
+            shed(customer, admission);
+            return;
+        }
+        waitingForTable.add(customer);
+        inLine[customer.getOrderNum()] = true;
+        if (admissionPolicy.getRenegeNanos() >= 0) {
+            schedule(admissionPolicy.getRenegeNanos(), () -> {
+                if (inLine[customer.getOrderNum()]) {
+                    inLine[customer.getOrderNum()] = false;
+                    renegedInLine++;
+                    shed(customer, AdmissionPolicy.Outcome.RENEGED);
+                }
+            });
+        }
+    }
+
+    /**
+     * Turns away the customers waiting in line for a table, once stop() has
+     * been called.
+     */
+    private void sendLineAwayIfStopped() {
+        if (!stopped || lineSentAway) {
+            return;
+        }
+        lineSentAway = true;
+        Customer customer;
+        while ((customer = waitingForTable.poll()) != null) {
+            if (inLine[customer.getOrderNum()]) {
+                inLine[customer.getOrderNum()] = false;
+                shed(customer, AdmissionPolicy.Outcome.TURNED_AWAY);
+            }
+        }
+        renegedInLine = 0;
+    }
+
+    private void shed(Customer customer, AdmissionPolicy.Outcome admission) {
+        logEvent(SimulationEvent.customerShed(customer, admission));
+        seating.recordShed(admission);
+        steadyState.recordShed(arrivalNanos[customer.getOrderNum()]);
+    }
+
+    private void enter(Customer customer) {
+        long tableWaitNanos = clockNanos - arrivalNanos[customer.getOrderNum()];
+        customer.setTableWaitNanos(tableWaitNanos);
+        seating.recordWait(tableWaitNanos);
+        seatedCustomers++;
+        logEvent(SimulationEvent.customerEnteredCoffeeShop(customer));
+
+        if (itemPool != null) {
+            itemPool.add(customer, clockNanos);
+        } else {
+            orderList.add(customer, clockNanos);
+        }
+        logEvent(SimulationEvent.customerPlacedOrder(customer, customer.getOrder(), customer.getOrderNum()));
+        dispatch();
+    }
+
+    private void receiveOrder(Customer customer) {
+        logEvent(SimulationEvent.customerReceivedOrder(customer, customer.getOrder(), customer.getOrderNum()));
+        // Customers place their order as they enter
+        long arrived = arrivalNanos[customer.getOrderNum()];
+        long entered = arrived + customer.getTableWaitNanos();
+        latencies.recordVisit(arrived, entered, entered, clockNanos, clockNanos);
+        steadyState.record(arrived, clockNanos);
+        seating.recordStay(clockNanos - entered);
+
+        seatedCustomers--;
+        logEvent(SimulationEvent.customerLeavingCoffeeShop(customer));
+        Customer next;
+        while ((next = waitingForTable.poll()) != null && !inLine[next.getOrderNum()]) {
+            renegedInLine--;
+        }
+        if (next != null) {
+            inLine[next.getOrderNum()] = false;
+            enter(next);
+        }
+    }
+
+    /* Cook protocol */
+
+    private void dispatch() {
+        if (itemPool != null) {
+            dispatchItems();
+        } else {
+            dispatchOrders();
+        }
+    }
+
+    private void dispatchOrders() {
+        while (!orderList.isEmpty() && !idleCooks.isEmpty()) {
+            CookState cook = idleCooks.remove();
+            Customer customer = orderList.remove(
+                    schedulingPolicy.choose(orderList, this::estimatedWaitNanos, clockNanos));
+            cook.startOrder(customer, clockNanos);
+            cook.cook.getOrderTimings().orderReceived(customer.getOrderNum(), clockNanos);
+            logEvent(SimulationEvent.cookReceivedOrder(cook.cook,
+                    customer.getOrder(), customer.getOrderNum()));
+            submitItems(cook);
+        }
+    }
+
+    /**
+     * Submits every item of the cook's order to its machine at once; the
+     * cook then waits for all of them to be cooked.
+     */
+    private void submitItems(CookState cook) {
+        int orderNum = cook.customer.getOrderNum();
+        for (Food food : cook.customer.getOrder()) {
+            MachineState machine = machineFor(food);
+            logEvent(SimulationEvent.cookStartedFood(cook.cook, machine.machine.getMachineFoodType(), orderNum));
+            machine.queuedItems.add(new Item(cook, orderNum, clockNanos));
+            startQueuedItems(machine);
+        }
+        completeOrderIfDone(cook);
+    }
+
+    private void completeOrderIfDone(CookState cook) {
+        if (cook.finishedItems < cook.customer.getOrder().size()) {
+            return;
+        }
+        Customer customer = cook.customer;
+        latencies.recordOrderPrepared(clockNanos - cook.startedNanos);
+        logEvent(SimulationEvent.cookCompletedOrder(cook.cook, customer.getOrderNum()));
+        cook.startOrder(null, clockNanos);
+        idleCooks.add(cook);
+
+        receiveOrder(customer);
+        dispatch();
+    }
+
+    /**
+     * Gives idle cooks the items of any order whose machine has a free
+     * slot, one item per cook.
+     */
+    private void dispatchItems() {
+        while (!idleCooks.isEmpty()) {
+            CookState cook = idleCooks.peek();
+            ItemPool.Item item = itemPool.take(cook.cook, clockNanos);
+            if (item == null) {
+                return;
+            }
+            idleCooks.remove();
+            cook.item = item;
+            Customer customer = item.getCustomer();
+            int orderNum = customer.getOrderNum();
+            if (item.isFirst()) {
+                cook.cook.getOrderTimings().orderReceived(orderNum, clockNanos);
+                logEvent(SimulationEvent.cookReceivedOrder(cook.cook, customer.getOrder(), orderNum));
+            }
+            if (item.getFood() == null) {
+                finishSharedItem(cook);
+                continue;
+            }
+            MachineState machine = machineFor(item.getFood());
+            logEvent(SimulationEvent.cookStartedFood(cook.cook, item.getFood(), orderNum));
+            machine.queuedItems.add(new Item(cook, orderNum, clockNanos));
+            startQueuedItems(machine);
+        }
+    }
+
+    /**
+     * The cook is done with its item; whoever finishes the last item of an
+     * order completes it, on behalf of the cook who received it.
+     */
+    private void finishSharedItem(CookState cook) {
+        ItemPool.Item item = cook.item;
+        Customer customer = item.getCustomer();
+        cook.item = null;
+        idleCooks.add(cook);
+        if (item.getFood() != null) {
+            item.getReceivedBy().getOrderTimings().itemFinished(customer.getOrderNum(), clockNanos);
+        }
+        if (itemPool.finish(item)) {
+            latencies.recordOrderPrepared(clockNanos - item.getReceivedNanos());
+            logEvent(SimulationEvent.cookCompletedOrder(item.getReceivedBy(), customer.getOrderNum()));
+            receiveOrder(customer);
+        }
+        dispatch();
+    }
+
+    /* Machine protocol */
+
+    /**
+     * The machine making the given food, found by its position on the menu.
+     *
+     * @throws IllegalArgumentException if the food isn't on the menu
+     */
+    private MachineState machineFor(Food food) {
+        int index = menu.indexOf(food);
+        if (index < 0) {
+            throw new IllegalArgumentException(food + " is not on the menu");
+        }
+        return machines[index];
+    }
+
+    /**
+     * The items of the food's machine not done yet per slot, times the
+     * cooking time, as Machine.getEstimatedWaitNanos() does in real time.
+     */
+    private long estimatedWaitNanos(Food food) {
+        MachineState machine = machineFor(food);
+        return (machine.queuedItems.size() + machine.busySlots) * food.cookTimeMS * 1_000_000L
+                / machine.machine.getCapacity();
+    }
+
+    /**
+     * Starts the items waiting in line for the machine, first come first
+     * served, as long as it has free slots.
+     */
+    private void startQueuedItems(MachineState machine) {
+        if (machine.machine.isBatching()) {
+            startBatch(machine);
+            return;
+        }
+        Food food = machine.machine.getMachineFoodType();
+        while (machine.busySlots < machine.machine.getCapacity() && !machine.queuedItems.isEmpty()) {
+            Item item = machine.queuedItems.remove();
+            machine.busySlots++;
+            machine.machine.getQueueWait().record(clockNanos - item.submittedNanos);
+            machine.machine.getCookTime().record(food.cookTimeMS * 1_000_000L);
+            item.cook.cook.getOrderTimings().itemStarted(clockNanos);
+            logEvent(SimulationEvent.machineCookingFood(machine.machine, food));
+            machine.machine.recordCycle(1, clockNanos, clockNanos + food.cookTimeMS * 1_000_000L);
+            schedule(food.cookTimeMS * 1_000_000L, () -> finishItem(machine, item));
+        }
+    }
+
+    /**
+     * Starts a batch of the items waiting for the machine, once it is idle
+     * and either enough items are waiting to fill it or the oldest one has
+     * waited for the whole batch window.
+     */
+    private void startBatch(MachineState machine) {
+        if (machine.busySlots > 0 || machine.queuedItems.isEmpty()) {
+            return;
+        }
+        int capacity = machine.machine.getCapacity();
+        long windowClosesNanos = machine.queuedItems.peek().submittedNanos + machine.machine.getBatchWindowNanos();
+        if (machine.queuedItems.size() < capacity && clockNanos < windowClosesNanos) {
+            if (machine.windowClosesNanos != windowClosesNanos) {
+                machine.windowClosesNanos = windowClosesNanos;
+                schedule(windowClosesNanos - clockNanos, () -> startBatch(machine));
+            }
+            return;
+        }
+
+        Food food = machine.machine.getMachineFoodType();
+        long cookNanos = food.cookTimeMS * 1_000_000L;
+        List<Item> batch = new ArrayList<Item>(capacity);
+        while (batch.size() < capacity && !machine.queuedItems.isEmpty()) {
+            Item item = machine.queuedItems.remove();
+            batch.add(item);
+            machine.busySlots++;
+            machine.machine.getQueueWait().record(clockNanos - item.submittedNanos);
+            machine.machine.getCookTime().record(cookNanos);
+            item.cook.cook.getOrderTimings().itemStarted(clockNanos);
+            logEvent(SimulationEvent.machineCookingFood(machine.machine, food));
+        }
+        machine.machine.recordCycle(batch.size(), clockNanos, clockNanos + cookNanos);
+        schedule(cookNanos, () -> {
+            for (Item item : batch) {
+                finishItem(machine, item);
+            }
+        });
+    }
+
+    private void finishItem(MachineState machine, Item item) {
+        Food food = machine.machine.getMachineFoodType();
+        logEvent(SimulationEvent.machineDoneFood(machine.machine, food));
+        logEvent(SimulationEvent.cookFinishedFood(item.cook.cook, food, item.orderNum));
+        item.cook.cook.getOrderTimings().itemStopped(clockNanos);
+        machine.busySlots--;
+        startQueuedItems(machine);
+
+        if (itemPool != null) {
+            finishSharedItem(item.cook);
+        } else {
+            item.cook.cook.getOrderTimings().itemFinished(item.orderNum, clockNanos);
+            item.cook.finishedItems++;
+            completeOrderIfDone(item.cook);
+        }
+    }
+
+    /**
+     * An action due at a given virtual time; actions due at the same time
+     * run in the order they were scheduled.
+     */
+    private static final class Scheduled implements Comparable<Scheduled> {
+        final long timeNanos;
+        final long sequence;
+        final Runnable action;
+
+        Scheduled(long timeNanos, long sequence, Runnable action) {
+            this.timeNanos = timeNanos;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        public int compareTo(Scheduled other) {
+            int byTime = Long.compare(timeNanos, other.timeNanos);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class CookState {
+        final Cook cook;
+        Customer customer;
+        ItemPool.Item item;
+        int finishedItems;
+        long startedNanos;
+
+        CookState(Cook cook) {
+            this.cook = cook;
+        }
+
+        void startOrder(Customer customer, long nowNanos) {
+            this.customer = customer;
+            this.finishedItems = 0;
+            this.startedNanos = nowNanos;
+        }
+    }
+
+    /**
+     * A food item submitted to a machine by a cook.
+     */
+    private static final class Item {
+        final CookState cook;
+        final int orderNum;
+        final long submittedNanos;
+
+        Item(CookState cook, int orderNum, long submittedNanos) {
+            this.cook = cook;
+            this.orderNum = orderNum;
+            this.submittedNanos = submittedNanos;
+        }
+    }
+
+    private static final class MachineState {
+        final Machine machine;
+        final Queue<Item> queuedItems = new ArrayDeque<Item>();
+        int busySlots;
+        long windowClosesNanos = -1;
+
+        MachineState(Machine machine) {
+            this.machine = machine;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package coffeeshop;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventLog decouples the actors logging events from the sinks storing or
+ * printing them.  Actors enqueue events into a lock-free queue and return
+ * immediately; a background consumer thread, parked while the queue is
+ * empty, drains it and hands the events to every sink in batches.  An actor
+ * only wakes the consumer up when it is parked, so logging an event is a
+ * couple of atomic operations and takes no lock.
+ * <p>
+ * The queue is bounded by a count of the events in it: if the sinks fall
+ * behind and it reaches CAPACITY, actors park until the consumer has taken
+ * a batch, rather than the log growing without bound.  Actors racing past
+ * the check may overshoot the capacity by one event each.
+ * <p>
+ * The queue is linearizable, so if logging an event happens before logging
+ * another one (for instance a customer leaving before the next one enters),
+ * the sinks receive them in that order, just like with the synchronized list
+ * the simulation used to log into.
+ * <p>
+ * A sink failing to write is given no more events, and its failure is
+ * thrown by close().
+ */
+public final class EventLog {
+    private static final int BATCH_SIZE = 1024;
+    private static final int CAPACITY = 64 * BATCH_SIZE;
+    /* Queued by close() after the last event; compared by identity */
+    private static final SimulationEvent END = SimulationEvent.endSimulation();
+
+    private final Queue<SimulationEvent> buffer = new ConcurrentLinkedQueue<SimulationEvent>();
+    /* Events added and not taken by the consumer yet */
+    private final AtomicInteger size = new AtomicInteger();
+    /* Actors waiting for room in the queue */
+    private final Queue<Thread> waitingForRoom = new ConcurrentLinkedQueue<Thread>();
+    private volatile boolean consumerParked;
+    private final List<EventSink> sinks;
+    private final boolean[] failed;
+    private final Thread consumer;
+    private volatile boolean closed;
+    /* First sink failure, the later ones suppressed; written by the consumer */
+    private RuntimeException failure;
+
+    /**
+     * Creates a log writing to the given sinks and starts its consumer
+     * thread.  A log without sinks is silent: events are simply dropped.
+     */
+    public EventLog(EventSink... sinks) {
+        this.sinks = Arrays.asList(sinks);
+        this.failed = new boolean[sinks.length];
+        this.consumer = new Thread(this::consume, "event-log");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Enqueues an event for the sinks.  Only blocks while the queue is full,
+     * until the consumer has made room.
+     */
+    public void add(SimulationEvent event) {
+        if (closed) {
+            return;
+        }
+        if (size.get() >= CAPACITY) {
+            waitForRoom();
+        }
+        enqueue(event);
+    }
+
+    private void enqueue(SimulationEvent event) {
+        buffer.offer(event);
+        size.incrementAndGet();
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Parks until the queue is below capacity.  Logging must not lose the
+     * event, so an interrupt doesn't stop the wait, and is restored after.
+     */
+    private void waitForRoom() {
+        Thread actor = Thread.currentThread();
+        boolean interrupted = false;
+        while (size.get() >= CAPACITY) {
+            waitingForRoom.add(actor);
+            if (size.get() >= CAPACITY) {
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+            waitingForRoom.remove(actor);
+        }
+        if (interrupted) {
+            actor.interrupt();
+        }
+    }
+
+    /**
+     * Writes the events still queued, closes the sinks and stops the
+     * consumer thread.  Events added after close() are never written.
+     *
+     * @throws UncheckedIOException if a sink failed to write or to close;
+     *                              a sink throwing a RuntimeException has it
+     *                              rethrown instead
+     */
+    public void close() {
+        closed = true;
+        enqueue(END);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                consumer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        for (EventSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                fail(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the events kept by the first EventStore among the sinks of
+     * this log, or an empty list if none of its sinks keeps them.
+     */
+    public List<SimulationEvent> getEvents() {
+        for (EventSink sink : sinks) {
+            if (sink instanceof EventStore) {
+                return ((EventStore) sink).getEvents();
+            }
+        }
+        return new ArrayList<SimulationEvent>();
+    }
+
+    private void consume() {
+        List<SimulationEvent> batch = new ArrayList<SimulationEvent>(BATCH_SIZE);
+        while (true) {
+            SimulationEvent event = null;
+            while (batch.size() < BATCH_SIZE && (event = buffer.poll()) != null && event != END) {
+                batch.add(event);
+            }
+            if (batch.isEmpty() && event == null) {
+                parkUntilAdded();
+                continue;
+            }
+            taken(batch.size());
+            flush(batch);
+            if (event == END) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parks the consumer until an event is added.  The flag is raised
+     * before checking the queue again, and actors check it after adding,
+     * so either the consumer sees the event or the actor unparks it.
+     */
+    private void parkUntilAdded() {
+        consumerParked = true;
+        if (buffer.isEmpty()) {
+            LockSupport.park(this);
+        }
+        consumerParked = false;
+    }
+
+    /**
+     * Makes room for the given number of events taken from the queue, and
+     * wakes the actors waiting for it.
+     */
+    private void taken(int count) {
+        size.addAndGet(-count);
+        for (Thread actor : waitingForRoom) {
+            LockSupport.unpark(actor);
+        }
+    }
+
+    private void flush(List<SimulationEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int index = 0; index < sinks.size(); index++) {
+            if (failed[index]) {
+                continue;
+            }
+            try {
+                sinks.get(index).write(batch);
+            } catch (IOException e) {
+                failed[index] = true;
+                fail(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                failed[index] = true;
+                fail(e);
+            }
+        }
+        batch.clear();
+    }
+
+    private void fail(RuntimeException e) {
+        if (failure == null) {
+            failure = e;
+        } else {
+            failure.addSuppressed(e);
+        }
+    }
+}
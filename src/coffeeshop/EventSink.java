@@ -0,0 +1,25 @@
+package coffeeshop;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An EventSink is where the simulation's events end up: kept in memory,
+ * printed to the console, written to a file, ...  Sinks are fed by an
+ * EventLog, from a single consumer thread, with batches of events in the
+ * order they were logged.
+ */
+public interface EventSink {
+
+    /**
+     * Writes the next batch of events.  The batch is reused by the caller
+     * once this method returns.
+     */
+    void write(List<SimulationEvent> batch) throws IOException;
+
+    /**
+     * Called once, after the last batch has been written.
+     */
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,12 @@
+package coffeeshop;
+
+import java.util.List;
+
+/**
+ * An EventSink that keeps the events it is given, and can hand them back
+ * as a list, in the order they were logged.
+ */
+public interface EventStore extends EventSink {
+
+    List<SimulationEvent> getEvents();
+}
@@ -0,0 +1,35 @@
+package coffeeshop;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * ExecutionMode selects the kind of thread every simulation actor runs on.
+ * PLATFORM starts one OS thread per Customer, Cook and cooked item, which
+ * is how the simulation has always run.  VIRTUAL runs the very same actors
+ * on virtual threads, so peak-hour customer counts no longer run into
+ * native thread limits or the memory cost of thread stacks.
+ */
+public enum ExecutionMode {
+    PLATFORM(Thread.ofPlatform().factory()),
+    VIRTUAL(Thread.ofVirtual().factory());
+
+    private final ThreadFactory threadFactory;
+
+    ExecutionMode(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Returns the factory creating unstarted threads of this mode.
+     */
+    public ThreadFactory threadFactory() {
+        return threadFactory;
+    }
+
+    /**
+     * Creates an unstarted thread of this mode running the given task.
+     */
+    public Thread newThread(Runnable task) {
+        return threadFactory.newThread(task);
+    }
+}
@@ -0,0 +1,30 @@
+package coffeeshop;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes every event on its own line to a text file.
+ */
+public class FileEventSink implements EventSink {
+    private final BufferedWriter writer;
+
+    public FileEventSink(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    public void write(List<SimulationEvent> batch) throws IOException {
+        for (SimulationEvent event : batch) {
+            writer.write(event.toString());
+            writer.newLine();
+        }
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+}
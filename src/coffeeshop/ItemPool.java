@@ -0,0 +1,246 @@
+package coffeeshop;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The food items of every placed order, for cooks sharing work item by item
+ * (WorkMode.ITEM) rather than order by order.  Orders are opened in the
+ * order chosen by the OrderSchedulingPolicy; a cook takes the first item,
+ * of the oldest open order, whose machine has a free slot, so that no cook
+ * waits while a machine could take some work.  The pool counts the items
+ * cooking on each machine, and an order is complete once all its items are
+ * finished, whichever cooks tended them.  Not thread-safe: ItemQueue guards
+ * it with its lock, and the discrete-event engine uses it directly.
+ * <p>
+ * The items not taken yet wait in a line per food, oldest order first, so
+ * taking one only looks at the head of each line.  An order is only opened
+ * once one of its items can start: while the order the policy chooses
+ * can't, it stays waiting, and the policy chooses again when a slot frees.
+ */
+final class ItemPool {
+    private final OrderSchedulingPolicy policy;
+    private final MachineLoad machines;
+    private final Menu menu;
+    private final int machineCapacity;
+    private final WaitingOrders waiting = new WaitingOrders();
+    /* Items of the open orders not taken yet, per food in menu order */
+    private final List<ArrayDeque<PendingItem>> pending;
+    private int pendingItems;
+    /* Items cooking per machine, in menu order */
+    private final int[] busySlots;
+    private long ordersOpened;
+
+    ItemPool(OrderSchedulingPolicy policy, MachineLoad machines, Menu menu, int machineCapacity) {
+        this.policy = policy;
+        this.machines = machines;
+        this.menu = menu;
+        this.machineCapacity = machineCapacity;
+        this.pending = new ArrayList<ArrayDeque<PendingItem>>(menu.size());
+        for (int index = 0; index < menu.size(); index++) {
+            pending.add(new ArrayDeque<PendingItem>());
+        }
+        this.busySlots = new int[menu.size()];
+    }
+
+    void add(Customer customer, long nowNanos) {
+        waiting.add(customer, nowNanos);
+    }
+
+    /**
+     * Takes an item whose machine has a free slot for the given cook, or
+     * returns null if there is none.  An order without any item is taken as
+     * a single item with no food.
+     *
+     * @throws IllegalArgumentException if the order opened has a food that
+     *                                  isn't on the menu
+     */
+    Item take(Cook cook, long nowNanos) {
+        PendingItem next = null;
+        for (int index = 0; index < pending.size(); index++) {
+            PendingItem head = pending.get(index).peek();
+            if (head != null && busySlots[index] < machineCapacity && (next == null || head.isBefore(next))) {
+                next = head;
+            }
+        }
+        if (next != null) {
+            pending.get(next.foodIndex).remove();
+            pendingItems--;
+            busySlots[next.foodIndex]++;
+            return new Item(next.order, next.food, next.foodIndex, false);
+        }
+        if (waiting.isEmpty()) {
+            return null;
+        }
+        int chosen = policy.choose(waiting, machines, nowNanos);
+        int[] foodIndices = foodIndices(waiting.getCustomer(chosen).getOrder());
+        int first = firstStartable(foodIndices);
+        if (first < 0 && foodIndices.length > 0) {
+            return null;
+        }
+        OpenOrder order = new OpenOrder(waiting.remove(chosen), ordersOpened++, cook, nowNanos);
+        List<Food> foods = order.customer.getOrder();
+        for (int position = 0; position < foodIndices.length; position++) {
+            if (position != first) {
+                pending.get(foodIndices[position]).add(
+                        new PendingItem(order, position, foods.get(position), foodIndices[position]));
+                pendingItems++;
+            }
+        }
+        if (first < 0) {
+            return new Item(order, null, -1, true);
+        }
+        busySlots[foodIndices[first]]++;
+        return new Item(order, foods.get(first), foodIndices[first], true);
+    }
+
+    private int[] foodIndices(List<Food> order) {
+        int[] indices = new int[order.size()];
+        for (int position = 0; position < indices.length; position++) {
+            indices[position] = menu.indexOf(order.get(position));
+            if (indices[position] < 0) {
+                throw new IllegalArgumentException(order.get(position) + " is not on the menu");
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * The position of the first item whose machine has a free slot, or -1.
+     */
+    private int firstStartable(int[] foodIndices) {
+        for (int position = 0; position < foodIndices.length; position++) {
+            if (busySlots[foodIndices[position]] < machineCapacity) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records that the item is done, freeing its machine slot, and returns
+     * whether its order is now complete; an order with a failed item never
+     * is.
+     */
+    boolean finish(Item item) {
+        if (item.food == null) {
+            return true;
+        }
+        busySlots[item.foodIndex]--;
+        return --item.order.unfinished == 0 && !item.order.failed;
+    }
+
+    /**
+     * Records that the item couldn't be cooked, freeing its machine slot,
+     * and returns whether it is the first item of its order to fail.
+     */
+    boolean fail(Item item) {
+        busySlots[item.foodIndex]--;
+        item.order.unfinished--;
+        boolean first = !item.order.failed;
+        item.order.failed = true;
+        return first;
+    }
+
+    /**
+     * Number of orders no cook has taken an item of yet.
+     */
+    int ordersWaiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Whether no order is waiting and no open order has items left to take.
+     */
+    boolean isEmpty() {
+        return waiting.isEmpty() && pendingItems == 0;
+    }
+
+    private static final class OpenOrder {
+        final Customer customer;
+        final long sequence;
+        final Cook receivedBy;
+        final long receivedNanos;
+        int unfinished;
+        boolean failed;
+
+        OpenOrder(Customer customer, long sequence, Cook receivedBy, long receivedNanos) {
+            this.customer = customer;
+            this.sequence = sequence;
+            this.receivedBy = receivedBy;
+            this.receivedNanos = receivedNanos;
+            this.unfinished = customer.getOrder().size();
+        }
+    }
+
+    /**
+     * An item of an open order no cook has taken yet.
+     */
+    private static final class PendingItem {
+        final OpenOrder order;
+        final int position;
+        final Food food;
+        final int foodIndex;
+
+        PendingItem(OpenOrder order, int position, Food food, int foodIndex) {
+            this.order = order;
+            this.position = position;
+            this.food = food;
+            this.foodIndex = foodIndex;
+        }
+
+        /**
+         * Whether this item comes first: of an older order, or earlier in
+         * the same order.
+         */
+        boolean isBefore(PendingItem other) {
+            return order.sequence < other.order.sequence
+                    || order == other.order && position < other.position;
+        }
+    }
+
+    /**
+     * A food item taken by a cook, with the order it belongs to.
+     */
+    static final class Item {
+        private final OpenOrder order;
+        private final Food food;
+        private final int foodIndex;
+        private final boolean first;
+
+        Item(OpenOrder order, Food food, int foodIndex, boolean first) {
+            this.order = order;
+            this.food = food;
+            this.foodIndex = foodIndex;
+            this.first = first;
+        }
+
+        Customer getCustomer() {
+            return order.customer;
+        }
+
+        /**
+         * The food to cook, or null for an order without any item.
+         */
+        Food getFood() {
+            return food;
+        }
+
+        /**
+         * Whether this is the first item taken of its order; the cook taking
+         * it receives the order.
+         */
+        boolean isFirst() {
+            return first;
+        }
+
+        Cook getReceivedBy() {
+            return order.receivedBy;
+        }
+
+        long getReceivedNanos() {
+            return order.receivedNanos;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package coffeeshop;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ItemQueue hands the items of the orders placed by Customers over to
+ * Cooks one at a time, when cooks share the work item by item
+ * (WorkMode.ITEM): it guards an ItemPool with a lock, and wakes waiting
+ * cooks whenever an order is placed or a machine slot is freed.  Once the
+ * queue is closed, every cook gets the items still queued, and then goes
+ * home.
+ */
+class ItemQueue {
+    private final CoffeeShop shop;
+    private final ItemPool items;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private boolean closed;
+    /* Orders no cook has taken an item of yet, published for ordersWaiting() */
+    private volatile int ordersWaiting;
+
+    ItemQueue(CoffeeShop shop, OrderSchedulingPolicy policy, MachineLoad machines, Menu menu,
+              int machineCapacity) {
+        this.shop = shop;
+        this.items = new ItemPool(policy, machines, menu, machineCapacity);
+    }
+
+    void put(Customer customer) {
+        lock.lock();
+        try {
+            items.add(customer, System.nanoTime());
+            ordersWaiting = items.ordersWaiting();
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for an item the given cook can start and returns it, or null
+     * once the queue has been closed and there are no items left.  The cook
+     * taking the first item of an order receives the order, which is logged
+     * before any other cook can take another of its items.
+     */
+    ItemPool.Item take(Cook cook) throws InterruptedException {
+        lock.lock();
+        try {
+            ItemPool.Item item;
+            while ((item = items.take(cook, System.nanoTime())) == null) {
+                if (closed && items.isEmpty()) {
+                    return null;
+                }
+                workAvailable.await();
+            }
+            ordersWaiting = items.ordersWaiting();
+            if (item.isFirst()) {
+                Customer customer = item.getCustomer();
+                cook.getOrderTimings().orderReceived(customer.getOrderNum(), item.getReceivedNanos());
+                shop.logEvent(SimulationEvent.cookReceivedOrder(cook,
+                        customer.getOrder(), customer.getOrderNum()));
+            }
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the item is done and returns whether its order is now
+     * complete; exactly one cook gets true for each order that didn't fail.
+     */
+    boolean finish(ItemPool.Item item) {
+        lock.lock();
+        try {
+            boolean complete = items.finish(item);
+            workAvailable.signalAll();
+            return complete;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the item failed and returns whether it is the first of
+     * its order to fail; exactly one cook gets true for each failed order.
+     */
+    boolean fail(ItemPool.Item item) {
+        lock.lock();
+        try {
+            boolean first = items.fail(item);
+            workAvailable.signalAll();
+            return first;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of orders no cook has taken an item of yet, read without
+     * locking.
+     */
+    int ordersWaiting() {
+        return ordersWaiting;
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package coffeeshop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations, in nanoseconds, with log-linear buckets: values
+ * below 32 ns have a bucket each, and every power of two above is split into
+ * 32 buckets of equal width, so any value is known within about 3%.  Its
+ * memory is fixed at creation (about 15 KB) and recording a value neither
+ * allocates nor locks, so it can be fed from every thread of a simulation.
+ * <p>
+ * Percentiles are the upper bound of the bucket they fall in, capped at the
+ * largest value recorded.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a duration; negative durations count as zero.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = other.counts.get(bucket);
+            if (count != 0) {
+                counts.addAndGet(bucket, count);
+            }
+        }
+        totalNanos.add(other.totalNanos.sum());
+        maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            count += counts.get(bucket);
+        }
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0.0 : (double) totalNanos.sum() / count;
+    }
+
+    public double getMeanMillis() {
+        return getMeanNanos() / 1e6;
+    }
+
+    /**
+     * The duration below which the given percentage of the recorded
+     * durations fall, e.g. getPercentileNanos(99) for the 99th percentile.
+     */
+    public long getPercentileNanos(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return getPercentileNanos(percentile) / 1e6;
+    }
+
+    public double getMaxMillis() {
+        return getMaxNanos() / 1e6;
+    }
+
+    public String toString() {
+        return String.format("count %d; mean %.3f ms; p50 %.3f ms; p90 %.3f ms; p99 %.3f ms; max %.3f ms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(90),
+                getPercentileMillis(99), getMaxMillis());
+    }
+}
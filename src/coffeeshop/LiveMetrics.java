@@ -0,0 +1,179 @@
+package coffeeshop;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LiveMetrics keeps running aggregates of a simulation up to date as its
+ * events are logged, so they can be read at any time during a run without
+ * going through the event log: food counts, orders per cook, orders in
+ * flight and the depth of every queue of the shop.  Every update and every
+ * read of a single figure is constant time.
+ * <p>
+ * Figures are read independently of each other, so a read in the middle of
+ * a run may combine counters updated a few events apart.
+ */
+public class LiveMetrics implements SimulationEventListener {
+    private final LongAdder events = new LongAdder();
+    private final LongAdder customersStarted = new LongAdder();
+    private final LongAdder customersEntered = new LongAdder();
+    private final LongAdder customersLeft = new LongAdder();
+    private final LongAdder customersShed = new LongAdder();
+    private final LongAdder ordersPlaced = new LongAdder();
+    private final LongAdder ordersTaken = new LongAdder();
+    private final LongAdder ordersCompleted = new LongAdder();
+    private final LongAdder ordersReceived = new LongAdder();
+    private final ConcurrentMap<Food, LongAdder> foodOrdered = new ConcurrentHashMap<Food, LongAdder>();
+    private final ConcurrentMap<Food, LongAdder> foodSubmitted = new ConcurrentHashMap<Food, LongAdder>();
+    private final ConcurrentMap<Food, LongAdder> foodCooking = new ConcurrentHashMap<Food, LongAdder>();
+    private final ConcurrentMap<Food, LongAdder> foodCooked = new ConcurrentHashMap<Food, LongAdder>();
+    private final ConcurrentMap<Cook, LongAdder> ordersByCook = new ConcurrentHashMap<Cook, LongAdder>();
+
+    public void onEvent(SimulationEvent event) {
+        events.increment();
+        switch (event.getEvent()) {
+            case CustomerStarting:
+                customersStarted.increment();
+                break;
+            case CustomerEnteredCoffeeShop:
+                customersEntered.increment();
+                break;
+            case CustomerPlacedOrder:
+                ordersPlaced.increment();
+                break;
+            case CustomerReceivedOrder:
+                ordersReceived.increment();
+                break;
+            case CustomerLeavingCoffeeShop:
+                customersLeft.increment();
+                break;
+            case CustomerTurnedAway:
+            case CustomerBalked:
+            case CustomerReneged:
+                customersShed.increment();
+                break;
+            case CookReceivedOrder:
+                ordersTaken.increment();
+                for (Food food : event.getOrderFood()) {
+                    counter(foodOrdered, food).increment();
+                }
+                break;
+            case CookStartedFood:
+                counter(foodSubmitted, event.getFood()).increment();
+                break;
+            case CookCompletedOrder:
+                ordersCompleted.increment();
+                counter(ordersByCook, event.getCook()).increment();
+                break;
+            case MachineStartingFood:
+                counter(foodCooking, event.getFood()).increment();
+                break;
+            case MachineDoneFood:
+                counter(foodCooking, event.getFood()).decrement();
+                counter(foodCooked, event.getFood()).increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static <K> LongAdder counter(ConcurrentMap<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> long count(ConcurrentMap<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    private static <K> Map<K, Long> snapshot(ConcurrentMap<K, LongAdder> counters) {
+        Map<K, Long> snapshot = new HashMap<K, Long>();
+        counters.forEach((key, counter) -> snapshot.put(key, counter.sum()));
+        return snapshot;
+    }
+
+    public long getEventCount() {
+        return events.sum();
+    }
+
+    /* Customers */
+
+    public long getCustomersWaitingForTable() {
+        return customersStarted.sum() - customersEntered.sum() - customersShed.sum();
+    }
+
+    public long getCustomersSeated() {
+        return customersEntered.sum() - customersLeft.sum();
+    }
+
+    public long getCustomersServed() {
+        return customersLeft.sum();
+    }
+
+    /**
+     * Customers turned away, balking or reneging under the admission policy.
+     */
+    public long getCustomersShed() {
+        return customersShed.sum();
+    }
+
+    /* Orders */
+
+    /**
+     * Orders placed and not yet taken by a cook.
+     */
+    public long getOrdersWaiting() {
+        return ordersPlaced.sum() - ordersTaken.sum();
+    }
+
+    /**
+     * Orders placed and not yet received by their customer.
+     */
+    public long getOrdersInFlight() {
+        return ordersPlaced.sum() - ordersReceived.sum();
+    }
+
+    public long getOrdersCompleted() {
+        return ordersCompleted.sum();
+    }
+
+    public long getOrdersCompletedBy(Cook cook) {
+        return count(ordersByCook, cook);
+    }
+
+    public Map<Cook, Long> getOrdersNumByCook() {
+        return snapshot(ordersByCook);
+    }
+
+    /* Food */
+
+    /**
+     * Number of items of the given food in the orders cooks have taken.
+     */
+    public long getFoodOrdered(Food food) {
+        return count(foodOrdered, food);
+    }
+
+    public long getFoodCooked(Food food) {
+        return count(foodCooked, food);
+    }
+
+    /**
+     * Items of the given food submitted to a machine and not yet cooking.
+     */
+    public long getFoodWaitingForMachine(Food food) {
+        return count(foodSubmitted, food) - count(foodCooking, food) - count(foodCooked, food);
+    }
+
+    public long getFoodCooking(Food food) {
+        return count(foodCooking, food);
+    }
+
+    public Map<Food, Long> getFoodCooked() {
+        return snapshot(foodCooked);
+    }
+}
@@ -1,27 +1,86 @@
 package coffeeshop;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A Machine is used to make a particular Food.  Each Machine makes
  * just one kind of Food.  Each machine has a capacity: it can make
- * that many food items in parallel; if the machine is asked to
- * produce a food item beyond its capacity, the requester blocks.
- * Each food item takes at least item.cookTimeMS milliseconds to
- * produce.
+ * that many food items in parallel; food items asked beyond its
+ * capacity wait in line, first come first served, without blocking
+ * the requester.  Each food item takes at least item.cookTimeMS
+ * milliseconds to produce.  Items are cooked by a pool of worker
+ * threads owned by the machine, one per unit of capacity, so the
+ * threads a kitchen uses are bounded by the sum of its machines'
+ * capacities.
+ * <p>
+ * A machine can instead cook in batches, as a fryer basket or a grill
+ * does: items wait until there are as many as the capacity, or until the
+ * oldest one has waited for the batch window, and are then cooked together
+ * in a single cycle of cookTimeMS, by a single worker.
  */
 public class Machine {
     public final String machineName;
     public final Food machineFoodType;
     int capacity;
     Queue<Food> foodList;
+    private final ExecutorService workers;
+    private final CoffeeShop shop;
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram cookTime = new LatencyHistogram();
+    private final LongAdder itemsCooked = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    /* Items submitted and not done yet, and those of them cooking */
+    private final AtomicInteger itemsInFlight = new AtomicInteger();
+    private final AtomicInteger itemsCooking = new AtomicInteger();
+    private final AtomicLong firstStartedNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastFinishedNanos = new AtomicLong(Long.MIN_VALUE);
+
+    /* Batch mode: items waiting for the next batch, guarded by batchLock */
+    private long batchWindowNanos = -1;
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition itemQueued = batchLock.newCondition();
+    private final Queue<CookAnItem> batchQueue = new ArrayDeque<CookAnItem>();
+    private boolean batchCookStarted;
+    private boolean shuttingDown;
 
     public Machine(String nameIn, Food foodIn, int capacityIn) {
+        this(nameIn, foodIn, capacityIn, ExecutionMode.PLATFORM.threadFactory());
+    }
+
+    public Machine(String nameIn, Food foodIn, int capacityIn, ThreadFactory threadFactory) {
+        this(nameIn, foodIn, capacityIn, threadFactory, null);
+    }
+
+    /**
+     * A machine of the given shop, logging to the shop's event log; a
+     * machine built without a shop logs through Simulation.logEvent().
+     */
+    Machine(String nameIn, Food foodIn, int capacityIn, ThreadFactory threadFactory, CoffeeShop shop) {
+        this.shop = shop;
         this.machineName = nameIn;
         this.machineFoodType = foodIn;
         this.capacity = capacityIn;
-        this.foodList = new LinkedList<Food>();
+        this.foodList = new ConcurrentLinkedQueue<Food>();
+        /* Workers are started on demand, up to one per slot, and then reused */
+        this.workers = new ThreadPoolExecutor(capacityIn, capacityIn,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                threadFactory);
     }
 
     public String getMachineName() {
@@ -36,61 +95,311 @@ public class Machine {
         return capacity;
     }
 
+    /**
+     * The food items submitted to this machine and not done yet, whether
+     * cooking or waiting for a free slot.
+     */
     public Queue<Food> getFoodList() {
         return foodList;
     }
 
+    /**
+     * Makes the machine cook in batches of up to its capacity, waiting at
+     * most the given window for a batch to fill up.  Must be called before
+     * any item is submitted.
+     */
+    public void setBatchWindowMillis(long windowMillis) {
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    public boolean isBatching() {
+        return batchWindowNanos >= 0;
+    }
+
+    /**
+     * How long the first item of a batch waits for the batch to fill up,
+     * at most, in nanoseconds; -1 if the machine doesn't cook in batches.
+     */
+    public long getBatchWindowNanos() {
+        return batchWindowNanos;
+    }
+
+    /**
+     * Number of items submitted to this machine and not done yet, whether
+     * cooking or waiting; unlike getFoodList().size(), constant time.
+     */
+    public int getItemsInFlight() {
+        return itemsInFlight.get();
+    }
+
+    /**
+     * Number of items cooking right now, at most the capacity.
+     */
+    public int getItemsCooking() {
+        return itemsCooking.get();
+    }
+
+    /**
+     * Rough estimate of how long an item submitted now would take to start
+     * cooking: the items not done yet per slot, times the cooking time.
+     */
+    public long getEstimatedWaitNanos() {
+        return itemsInFlight.get() * machineFoodType.cookTimeMS * 1_000_000L / capacity;
+    }
+
     /**
      * This method is called by a Cook in order to make the Machine's
-     * food item.
+     * food item.  It returns immediately; the returned future completes
+     * with the food once it is cooked.
      */
-    public void makeFood(Cook name, int orderNum) throws InterruptedException {
+    public CompletableFuture<Food> makeFood(Cook name, int orderNum) {
+        CompletableFuture<Food> done = new CompletableFuture<Food>();
         foodList.add(machineFoodType);
-        Thread curr = new Thread(new CookAnItem(name, orderNum));
-        curr.start();
+        itemsInFlight.incrementAndGet();
+        CookAnItem item = new CookAnItem(name, orderNum, done);
+        if (isBatching()) {
+            queueForBatch(item);
+        } else {
+            workers.execute(item);
+        }
+        return done;
+    }
+
+    private void queueForBatch(CookAnItem item) {
+        batchLock.lock();
+        try {
+            batchQueue.add(item);
+            if (!batchCookStarted) {
+                batchCookStarted = true;
+                workers.execute(this::cookBatches);
+            }
+            itemQueued.signal();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * Cooks batches one after the other until the machine shuts down.
+     */
+    private void cookBatches() {
+        List<CookAnItem> batch = new ArrayList<CookAnItem>(capacity);
+        try {
+            while (nextBatch(batch)) {
+                long started = System.nanoTime();
+                for (CookAnItem item : batch) {
+                    item.start(started);
+                }
+                Thread.sleep(machineFoodType.cookTimeMS);
+                long finished = System.nanoTime();
+                recordCycle(batch.size(), started, finished);
+                for (CookAnItem item : batch) {
+                    item.finish(started, finished);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            /* Machine gets interrupted -> fail the items left; the next item
+               queued starts a new batch cook */
+            batchLock.lock();
+            try {
+                batch.addAll(batchQueue);
+                batchQueue.clear();
+                batchCookStarted = false;
+            } finally {
+                batchLock.unlock();
+            }
+            for (CookAnItem item : batch) {
+                item.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the next batch to be full, or for its window to close, and
+     * moves its items into the given list; returns false once the machine
+     * is shutting down and no item is left.
+     */
+    private boolean nextBatch(List<CookAnItem> batch) throws InterruptedException {
+        batchLock.lock();
+        try {
+            while (true) {
+                if (batchQueue.isEmpty()) {
+                    if (shuttingDown) {
+                        return false;
+                    }
+                    itemQueued.await();
+                    continue;
+                }
+                long waitNanos = batchQueue.peek().submitted + batchWindowNanos - System.nanoTime();
+                if (batchQueue.size() >= capacity || waitNanos <= 0 || shuttingDown) {
+                    while (batch.size() < capacity && !batchQueue.isEmpty()) {
+                        batch.add(batchQueue.remove());
+                    }
+                    return true;
+                }
+                itemQueued.awaitNanos(waitNanos);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the machine's workers once the items already submitted are
+     * cooked, and waits for them to finish.
+     */
+    public void shutdown() throws InterruptedException {
+        batchLock.lock();
+        try {
+            shuttingDown = true;
+            itemQueued.signalAll();
+        } finally {
+            batchLock.unlock();
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * How long items waited for a free slot of the machine, in nanoseconds.
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * How long the machine took to cook items, in nanoseconds.
+     */
+    public LatencyHistogram getCookTime() {
+        return cookTime;
+    }
+
+    /**
+     * Records a cooking cycle of the given number of items: a batch, or a
+     * single item cooked in a slot.
+     */
+    void recordCycle(int items, long startedNanos, long finishedNanos) {
+        itemsCooked.add(items);
+        if (isBatching()) {
+            batches.increment();
+        }
+        firstStartedNanos.accumulateAndGet(startedNanos, Math::min);
+        lastFinishedNanos.accumulateAndGet(finishedNanos, Math::max);
+    }
+
+    public long getItemsCooked() {
+        return itemsCooked.sum();
+    }
+
+    /**
+     * Number of batches cooked; 0 if the machine doesn't cook in batches.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * How full the batches were on average, from 0 to 1: the items per
+     * batch over the capacity; 0 if no batch was cooked.
+     */
+    public double getBatchFillRatio() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) itemsCooked.sum() / count / capacity;
+    }
+
+    /**
+     * Items cooked per second, from the first item started to the last one
+     * finished.
+     */
+    public double getItemsPerSecond() {
+        long elapsed = lastFinishedNanos.get() - firstStartedNanos.get();
+        return elapsed <= 0 ? 0.0 : itemsCooked.sum() * 1e9 / elapsed;
     }
 
     public String toString() {
         return machineName;
     }
 
+    private void logEvent(SimulationEvent event) {
+        if (shop != null) {
+            shop.logEvent(event);
+        } else {
+            Simulation.logEvent(event);
+        }
+    }
+
     private class CookAnItem implements Runnable {
         Cook currCook;
         int orderNum;
+        CompletableFuture<Food> done;
+        long submitted;
+        boolean cooking;
 
-        public CookAnItem(Cook currCook, int orderNum) {
+        public CookAnItem(Cook currCook, int orderNum, CompletableFuture<Food> done) {
             this.currCook = currCook;
             this.orderNum = orderNum;
+            this.done = done;
+            this.submitted = System.nanoTime();
         }
 
         public void run() {
             try {
-                /* Machine starts to cook food -> log event */
-                Simulation.logEvent(SimulationEvent.machineCookingFood(Machine.this, machineFoodType));
+                long started = System.nanoTime();
+                start(started);
 
                 /* Sleep to simulate different cooking time per each food type */
                 Thread.sleep(machineFoodType.cookTimeMS);
+                long finished = System.nanoTime();
+                recordCycle(1, started, finished);
+                finish(started, finished);
 
-                /* Cooking is done -> log event that machine and cook finished the food */
-                Simulation.logEvent(SimulationEvent.machineDoneFood(Machine.this, machineFoodType));
-                Simulation.logEvent(SimulationEvent.cookFinishedFood(currCook, machineFoodType, orderNum));
+            } catch (InterruptedException e) {
+                /* Machine gets interrupted -> the item fails */
+                fail(e);
+            }
+        }
 
-                /* Remove the cooked food from the to-do list */
-                synchronized (foodList) {
-                    foodList.remove();
-                    foodList.notifyAll();
-                }
+        void start(long started) {
+            cooking = true;
+            /* Machine starts to cook food -> log event */
+            queueWait.record(started - submitted);
+            itemsCooking.incrementAndGet();
+            currCook.getOrderTimings().itemStarted(started);
+            logEvent(SimulationEvent.machineCookingFood(Machine.this, machineFoodType));
+        }
 
-                /* Add food to finished food list */
-                synchronized (currCook.finishedFood) {
-                    currCook.finishedFood.add(machineFoodType);
-                    currCook.finishedFood.notifyAll();
-                }
+        void finish(long started, long finished) {
+            cookTime.record(finished - started);
+            itemsCooking.decrementAndGet();
+            currCook.getOrderTimings().itemStopped(finished);
+            /* Items shared between cooks are recorded by the cook who received the order */
+            if (shop == null || shop.getWorkMode() != WorkMode.ITEM) {
+                currCook.getOrderTimings().itemFinished(orderNum, finished);
+            }
 
+            /* Cooking is done -> log event that machine and cook finished the food */
+            logEvent(SimulationEvent.machineDoneFood(Machine.this, machineFoodType));
+            logEvent(SimulationEvent.cookFinishedFood(currCook, machineFoodType, orderNum));
 
-            } catch (InterruptedException e) {
-                /* Machine gets interrupted -> shut down */
+            /* Remove the cooked food from the to-do list and hand it to the cook */
+            foodList.remove();
+            itemsInFlight.decrementAndGet();
+            done.complete(machineFoodType);
+        }
+
+        /**
+         * Gives up on the item, releasing its place on the machine, and
+         * fails it with the given cause.
+         */
+        void fail(Throwable cause) {
+            if (cooking) {
+                itemsCooking.decrementAndGet();
+                currCook.getOrderTimings().itemStopped(System.nanoTime());
             }
+            foodList.remove();
+            itemsInFlight.decrementAndGet();
+            done.completeExceptionally(cause);
         }
     }
 }
\ No newline at end of file
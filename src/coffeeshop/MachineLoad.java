@@ -0,0 +1,14 @@
+package coffeeshop;
+
+/**
+ * How busy the machines of a shop are, for scheduling policies that take
+ * it into account.
+ */
+public interface MachineLoad {
+
+    /**
+     * Estimated time, in nanoseconds, before an item of the given food
+     * submitted now would start cooking on its machine.
+     */
+    long estimatedWaitNanos(Food food);
+}
@@ -0,0 +1,28 @@
+package coffeeshop;
+
+/**
+ * Live figures of a Machine of a running CoffeeShop, exposed over JMX.
+ */
+public interface MachineMXBean {
+
+    String getFood();
+
+    int getCapacity();
+
+    /**
+     * Items cooking right now, at most the capacity.
+     */
+    int getItemsCooking();
+
+    /**
+     * Items submitted and waiting for a free slot, or for their batch.
+     */
+    int getItemsWaiting();
+
+    /**
+     * The fraction of the slots cooking right now, from 0 to 1.
+     */
+    double getSlotUtilization();
+
+    long getItemsCooked();
+}
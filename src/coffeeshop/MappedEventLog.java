@@ -0,0 +1,267 @@
+package coffeeshop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static coffeeshop.MappedEventSink.*;
+
+/**
+ * Reads back a binary log written by MappedEventSink.  Iterating over it
+ * streams the events from a window of the file mapped in memory, rebuilding
+ * each one as it is read, so a log of any length can be fed to
+ * CoffeeShopReport.of() or CoffeeShopReportStreams.report() without ever
+ * being held on the heap; only the foods, actors and orders it defines are.
+ * <p>
+ * Those are rebuilt as new Cook, Machine and Customer objects, shared by
+ * all the events (and all the iterations) that refer to them.  Foods are
+ * resolved like Menu.parse() does, so that burgers, fries and coffee are
+ * the FoodType ones and reports on them apply to a log; other foods are
+ * rebuilt too.
+ * Rebuilt cooks have no timing, so the average cooking time report isn't
+ * available from a log.
+ */
+public class MappedEventLog implements Iterable<SimulationEvent>, Closeable {
+    private static final SimulationEvent.EventType[] TYPES = SimulationEvent.EventType.values();
+
+    private final FileChannel channel;
+    private final long size;
+
+    private final List<Food> foods = new ArrayList<Food>();
+    private final List<Object> actors = new ArrayList<Object>();
+    private final Map<Integer, List<Food>> orderFoodByNumber = new HashMap<Integer, List<Food>>();
+
+    public MappedEventLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        long fileSize = channel.size();
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, HEADER_SIZE));
+        if (fileSize < HEADER_SIZE || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not an event log");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            channel.close();
+            throw new IOException(file + " is an event log of unknown version " + version);
+        }
+        // A log that wasn't closed ends at its first END tag, or with the file
+        long length = header.getLong();
+        if (length > fileSize) {
+            channel.close();
+            throw new IOException(file + " is truncated: " + fileSize + " bytes of a " + length + " byte log");
+        }
+        this.size = length == 0 ? fileSize : length;
+    }
+
+    /**
+     * The length of the log in bytes, which can be less than the file's.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Streams the events of the log, in the order they were logged.  Errors
+     * reading the file are thrown as UncheckedIOException.
+     */
+    public Iterator<SimulationEvent> iterator() {
+        return new Reader();
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private class Reader implements Iterator<SimulationEvent> {
+        private MappedByteBuffer window;
+        private long windowStart;
+        private SimulationEvent next;
+        private boolean ended;
+
+        Reader() {
+            map(HEADER_SIZE);
+        }
+
+        private void map(long position) {
+            try {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW_SIZE, size - position));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Makes sure the next given number of bytes are in the window,
+         * moving it forward if they aren't.
+         */
+        private void require(int bytes) {
+            if (window.remaining() < bytes) {
+                long position = windowStart + window.position();
+                if (size - position < bytes) {
+                    throw new UncheckedIOException(new IOException("Event log truncated at " + position));
+                }
+                map(position);
+            }
+        }
+
+        public boolean hasNext() {
+            while (next == null && !ended) {
+                next = readRecord();
+            }
+            return next != null;
+        }
+
+        public SimulationEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SimulationEvent event = next;
+            next = null;
+            return event;
+        }
+
+        /**
+         * Reads the next record; returns the event if it is one, null if it
+         * is a definition.
+         */
+        private SimulationEvent readRecord() {
+            if (windowStart + window.position() == size) {
+                ended = true;
+                return null;
+            }
+            require(1);
+            byte tag = window.get();
+            switch (tag) {
+                case END:
+                    ended = true;
+                    return null;
+                case FOOD: {
+                    require(2);
+                    int id = window.getShort();
+                    String name = getString();
+                    require(4);
+                    int cookTimeMS = window.getInt();
+                    if (id == foods.size()) {
+                        foods.add(Menu.food(name, cookTimeMS));
+                    }
+                    return null;
+                }
+                case COOK: {
+                    require(4);
+                    int id = window.getInt();
+                    String name = getString();
+                    if (id == actors.size()) {
+                        actors.add(new Cook(name));
+                    }
+                    return null;
+                }
+                case MACHINE: {
+                    require(4);
+                    int id = window.getInt();
+                    String name = getString();
+                    require(6);
+                    Food food = foods.get(window.getShort());
+                    int capacity = window.getInt();
+                    if (id == actors.size()) {
+                        actors.add(new Machine(name, food, capacity));
+                    }
+                    return null;
+                }
+                case CUSTOMER: {
+                    require(4);
+                    int id = window.getInt();
+                    String name = getString();
+                    require(4);
+                    int orderNum = window.getInt();
+                    List<Food> order = getFoods();
+                    if (id == actors.size()) {
+                        orderFoodByNumber.putIfAbsent(orderNum, order);
+                        actors.add(new Customer(name, orderFoodByNumber.get(orderNum), orderNum));
+                    }
+                    return null;
+                }
+                case ORDER: {
+                    require(4);
+                    int orderNum = window.getInt();
+                    orderFoodByNumber.putIfAbsent(orderNum, getFoods());
+                    return null;
+                }
+                case EVENT:
+                    return readEvent();
+                default:
+                    throw new UncheckedIOException(new IOException("Unknown record "
+                            + tag + " at " + (windowStart + window.position() - 1)));
+            }
+        }
+
+        private SimulationEvent readEvent() {
+            require(12);
+            SimulationEvent.EventType type = TYPES[window.get()];
+            int actorId = window.getInt();
+            int foodId = window.getShort();
+            int orderNumber = window.getInt();
+            int paramCount = window.get();
+            int[] params = null;
+            if (paramCount > 0) {
+                require(4 * paramCount);
+                params = new int[paramCount];
+                for (int i = 0; i < paramCount; i++) {
+                    params[i] = window.getInt();
+                }
+            }
+
+            Object actor = actorId == NONE ? null : actors.get(actorId);
+            Cook cook = actor instanceof Cook ? (Cook) actor : null;
+            Customer customer = actor instanceof Customer ? (Customer) actor : null;
+            Machine machine = actor instanceof Machine ? (Machine) actor : null;
+            Food food = foodId == NONE ? null : foods.get(foodId);
+
+            List<Food> orderFood = null;
+            switch (type) {
+                case CustomerPlacedOrder:
+                case CustomerReceivedOrder:
+                case CookReceivedOrder:
+                    orderFood = orderFoodByNumber.get(orderNumber);
+                    break;
+                default:
+                    break;
+            }
+
+            return SimulationEvent.restore(type, cook, customer, machine, food, orderFood,
+                    orderNumber, params);
+        }
+
+        private String getString() {
+            require(2);
+            byte[] bytes = new byte[window.getShort()];
+            require(bytes.length);
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private List<Food> getFoods() {
+            require(2);
+            Food[] order = new Food[window.getShort()];
+            require(2 * order.length);
+            for (int i = 0; i < order.length; i++) {
+                order[i] = foods.get(window.getShort());
+            }
+            return Collections.unmodifiableList(Arrays.asList(order));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package coffeeshop;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Writes events to a compact binary log file, appending through a window of
+ * the file mapped in memory, so that writing an event is a few stores into
+ * the page cache.  The log can be read back with MappedEventLog.
+ * <p>
+ * The file starts with a header (MAGIC, VERSION, length of the log in
+ * bytes, or 0 until the sink is closed) followed by records, each
+ * starting with a tag byte.  Foods, actors and orders are written once, in
+ * a definition record, the first time an event refers to them; events
+ * then refer to them by id:
+ * <pre>
+ * FOOD     id:short name:string cookTimeMS:int
+ * COOK     id:int name:string
+ * MACHINE  id:int name:string food:short capacity:int
+ * CUSTOMER id:int name:string orderNum:int order:foods
+ * ORDER    orderNum:int order:foods
+ * EVENT    type:byte actor:int food:short orderNumber:int params:ints
+ * </pre>
+ * where a string is a short length followed by as many UTF-8 bytes, foods
+ * a short count followed by as many food ids, ints a byte count followed
+ * by as many ints, and -1 stands for no actor or no food.  An event takes
+ * 13 bytes.  The file keeps the length of the windows mapped, as it can't
+ * be truncated while it is still mapped (which it is until the windows are
+ * garbage collected): the length in the header tells where the log ends.
+ * The rest of the last window reads as zeros, i.e. as the end of the log,
+ * so a log that was never closed can still be read.
+ * <p>
+ * Actors are only known to the sink while they are in use, so that logging
+ * a long run doesn't keep every customer of it alive.
+ */
+public class MappedEventSink implements EventSink {
+    static final int MAGIC = 0x43534556; // "CSEV"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int LENGTH_OFFSET = 8;
+
+    static final byte END = 0;
+    static final byte FOOD = 1;
+    static final byte COOK = 2;
+    static final byte MACHINE = 3;
+    static final byte CUSTOMER = 4;
+    static final byte ORDER = 5;
+    static final byte EVENT = 6;
+
+    static final int NONE = -1;
+    static final int WINDOW_SIZE = 8 << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private final Map<Food, Integer> foodIds = new IdentityHashMap<Food, Integer>();
+    /* Actors don't override equals(), so this is keyed on their identity too */
+    private final Map<Object, Integer> actorIds = new WeakHashMap<Object, Integer>();
+    private int nextActorId;
+    private final Set<Integer> definedOrders = new HashSet<Integer>();
+
+    public MappedEventSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        map(0);
+        window.putInt(MAGIC);
+        window.putInt(VERSION);
+        window.putLong(0);
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_SIZE);
+    }
+
+    /**
+     * Makes room for the next record, of the given size, moving the window
+     * to the end of the log if the current one is too full.
+     */
+    private void reserve(int size) throws IOException {
+        if (size > WINDOW_SIZE) {
+            throw new IOException("Record of " + size + " bytes is larger than the log window");
+        }
+        if (window.remaining() < size) {
+            map(windowStart + window.position());
+        }
+    }
+
+    public void write(List<SimulationEvent> batch) throws IOException {
+        for (SimulationEvent event : batch) {
+            write(event);
+        }
+    }
+
+    private void write(SimulationEvent event) throws IOException {
+        Object actor = event.getCustomer() != null ? event.getCustomer()
+                : event.getCook() != null ? event.getCook()
+                : event.getMachine();
+        int actorId = actor == null ? NONE : actorId(actor);
+        int foodId = event.getFood() == null ? NONE : foodId(event.getFood());
+        if (event.getOrderFood() != null && definedOrders.add(event.getOrderNumber())) {
+            defineOrder(event.getOrderNumber(), event.getOrderFood());
+        }
+        int[] params = event.simParams == null ? new int[0] : event.simParams;
+
+        reserve(1 + 1 + 4 + 2 + 4 + 1 + 4 * params.length);
+        window.put(EVENT);
+        window.put((byte) event.getEvent().ordinal());
+        window.putInt(actorId);
+        window.putShort((short) foodId);
+        window.putInt(event.getOrderNumber());
+        window.put((byte) params.length);
+        for (int param : params) {
+            window.putInt(param);
+        }
+    }
+
+    private int foodId(Food food) throws IOException {
+        Integer id = foodIds.get(food);
+        if (id == null) {
+            id = foodIds.size();
+            if (id > Short.MAX_VALUE) {
+                throw new IOException("More than " + Short.MAX_VALUE + " foods in one log");
+            }
+            foodIds.put(food, id);
+            byte[] name = food.name.getBytes(StandardCharsets.UTF_8);
+            reserve(1 + 2 + 2 + name.length + 4);
+            window.put(FOOD);
+            window.putShort((short) (int) id);
+            putString(name);
+            window.putInt(food.cookTimeMS);
+        }
+        return id;
+    }
+
+    private int actorId(Object actor) throws IOException {
+        Integer id = actorIds.get(actor);
+        if (id != null) {
+            return id;
+        }
+        id = nextActorId++;
+        actorIds.put(actor, id);
+        byte[] name = actor.toString().getBytes(StandardCharsets.UTF_8);
+        if (actor instanceof Cook) {
+            reserve(1 + 4 + 2 + name.length);
+            window.put(COOK);
+            window.putInt(id);
+            putString(name);
+        } else if (actor instanceof Machine) {
+            Machine machine = (Machine) actor;
+            int foodId = foodId(machine.getMachineFoodType());
+            reserve(1 + 4 + 2 + name.length + 2 + 4);
+            window.put(MACHINE);
+            window.putInt(id);
+            putString(name);
+            window.putShort((short) foodId);
+            window.putInt(machine.getCapacity());
+        } else {
+            Customer customer = (Customer) actor;
+            short[] order = foodIds(customer.getOrder());
+            definedOrders.add(customer.getOrderNum());
+            reserve(1 + 4 + 2 + name.length + 4 + 2 + 2 * order.length);
+            window.put(CUSTOMER);
+            window.putInt(id);
+            putString(name);
+            window.putInt(customer.getOrderNum());
+            putFoods(order);
+        }
+        return id;
+    }
+
+    private void defineOrder(int orderNum, List<Food> orderFood) throws IOException {
+        short[] order = foodIds(orderFood);
+        reserve(1 + 4 + 2 + 2 * order.length);
+        window.put(ORDER);
+        window.putInt(orderNum);
+        putFoods(order);
+    }
+
+    private short[] foodIds(List<Food> foods) throws IOException {
+        if (foods.size() > Short.MAX_VALUE) {
+            throw new IOException("Order of more than " + Short.MAX_VALUE + " items");
+        }
+        short[] ids = new short[foods.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (short) foodId(foods.get(i));
+        }
+        return ids;
+    }
+
+    private void putString(byte[] bytes) throws IOException {
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("Name of more than " + Short.MAX_VALUE + " bytes");
+        }
+        window.putShort((short) bytes.length);
+        window.put(bytes);
+    }
+
+    private void putFoods(short[] ids) {
+        window.putShort((short) ids.length);
+        for (short id : ids) {
+            window.putShort(id);
+        }
+    }
+
+    /**
+     * Records the length of the log in its header and flushes it to disk.
+     */
+    public void close() throws IOException {
+        long length = windowStart + window.position();
+        window.force();
+        window = null;
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.putLong(LENGTH_OFFSET, length);
+        header.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,19 @@
+package coffeeshop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every event in memory, in the order they were logged.
+ */
+public class MemoryEventSink implements EventStore {
+    private final List<SimulationEvent> events = new ArrayList<SimulationEvent>();
+
+    public void write(List<SimulationEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public List<SimulationEvent> getEvents() {
+        return events;
+    }
+}
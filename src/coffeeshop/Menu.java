@@ -0,0 +1,199 @@
+package coffeeshop;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Menu is the list of foods a coffee shop serves, each made by a machine
+ * of its own, and how many of each the fixed order has.  Shops build one
+ * machine per menu entry, in menu order, and find the machine of a food by
+ * looking up the food's position on the menu in an identity hash map, then
+ * indexing the array of machines with it, so dispatch takes the same time
+ * however long the menu.  The position can't be kept on the food itself,
+ * as the same food (a FoodType) may be on several menus at different
+ * positions.  A machine makes a single food: its cooking time, batches
+ * and events are those of that food.
+ * <p>
+ * Menus can be loaded from a text file with one food per line:
+ * <pre>
+ * # name, cookTimeMS, machine, quantity in the fixed order
+ * burger, 500, Grill, 1
+ * fries, 350, Fryer, 2
+ * coffee, 100, CoffeeMaker2000, 1
+ * </pre>
+ * which is the DEFAULT menu.  Lines starting with # and blank lines are
+ * ignored.  Foods named like a FoodType with the same cooking time are that
+ * FoodType, so reports on burgers, fries and coffee apply to them.
+ */
+public final class Menu {
+    private static final List<Food> FOOD_TYPES = List.of(FoodType.burger, FoodType.fries, FoodType.coffee);
+
+    public static final Menu DEFAULT = new Menu(List.of(
+            new Entry(FoodType.burger, "Grill", 1),
+            new Entry(FoodType.fries, "Fryer", 2),
+            new Entry(FoodType.coffee, "CoffeeMaker2000", 1)));
+
+    private final List<Entry> entries;
+    private final List<Food> foods;
+    private final List<Food> fixedOrder;
+    /* Position on the menu of every food */
+    private final Map<Food, Integer> indexByFood;
+
+    /**
+     * @throws IllegalArgumentException if the menu is empty, or two entries
+     *                                  have the same food name or machine name
+     */
+    public Menu(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Empty menu");
+        }
+        Set<String> foodNames = new HashSet<String>();
+        Set<String> machineNames = new HashSet<String>();
+        List<Food> foods = new ArrayList<Food>(entries.size());
+        List<Food> fixedOrder = new ArrayList<Food>();
+        Map<Food, Integer> indexByFood = new IdentityHashMap<Food, Integer>();
+        for (Entry entry : entries) {
+            if (!foodNames.add(entry.food.name)) {
+                throw new IllegalArgumentException("Food " + entry.food + " is on the menu twice");
+            }
+            if (!machineNames.add(entry.machineName)) {
+                throw new IllegalArgumentException("Machine " + entry.machineName + " makes two foods");
+            }
+            indexByFood.put(entry.food, foods.size());
+            foods.add(entry.food);
+            fixedOrder.addAll(Collections.nCopies(entry.fixedQuantity, entry.food));
+        }
+        this.entries = List.copyOf(entries);
+        this.foods = Collections.unmodifiableList(foods);
+        this.fixedOrder = Collections.unmodifiableList(fixedOrder);
+        this.indexByFood = indexByFood;
+    }
+
+    /**
+     * Reads a menu from the given file.
+     *
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static Menu load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a menu, one food per line.
+     *
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static Menu parse(List<String> lines) {
+        List<Entry> entries = new ArrayList<Entry>();
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s*,\\s*");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Line " + number + ": expected name, cookTimeMS, machine, "
+                        + "quantity in the fixed order but got \"" + line + "\"");
+            }
+            try {
+                int cookTimeMS = Integer.parseInt(fields[1]);
+                int fixedQuantity = Integer.parseInt(fields[3]);
+                if (cookTimeMS < 0 || fixedQuantity < 0) {
+                    throw new IllegalArgumentException("Line " + number + ": negative number in \"" + line + "\"");
+                }
+                entries.add(new Entry(food(fields[0], cookTimeMS), fields[2], fixedQuantity));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + number + ": " + e.getMessage(), e);
+            }
+        }
+        return new Menu(entries);
+    }
+
+    /**
+     * The FoodType of that name and cooking time, or else a new food.
+     */
+    static Food food(String name, int cookTimeMS) {
+        for (Food food : FOOD_TYPES) {
+            if (food.name.equals(name) && food.cookTimeMS == cookTimeMS) {
+                return food;
+            }
+        }
+        return new Food(name, cookTimeMS);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The foods on the menu, in menu order.
+     */
+    public List<Food> getFoods() {
+        return foods;
+    }
+
+    /**
+     * The position of the food on the menu, or -1 if it isn't on it; a
+     * hash lookup by identity.
+     */
+    public int indexOf(Food food) {
+        Integer index = indexByFood.get(food);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * The order every customer places when orders aren't random.
+     */
+    public List<Food> getFixedOrder() {
+        return fixedOrder;
+    }
+
+    public String toString() {
+        return entries.toString();
+    }
+
+    /**
+     * A food on the menu, the name of the machine making it and how many of
+     * it the fixed order has.
+     */
+    public static final class Entry {
+        private final Food food;
+        private final String machineName;
+        private final int fixedQuantity;
+
+        public Entry(Food food, String machineName, int fixedQuantity) {
+            this.food = food;
+            this.machineName = machineName;
+            this.fixedQuantity = fixedQuantity;
+        }
+
+        public Food getFood() {
+            return food;
+        }
+
+        public String getMachineName() {
+            return machineName;
+        }
+
+        public int getFixedQuantity() {
+            return fixedQuantity;
+        }
+
+        public String toString() {
+            return food.name + ", " + food.cookTimeMS + ", " + machineName + ", " + fixedQuantity;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package coffeeshop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * OrderGenerator gives customers their orders from a menu: either the
+ * menu's fixed order (a burger, two fries and a coffee on the default
+ * menu), or a random number, from 0 to 2, of each food on the menu.  Random
+ * orders are drawn from a SplittableRandom seeded once per generator, so the
+ * same seed always gives the same workload.
+ * <p>
+ * Orders are generated in chunks, each with its own generator split off the
+ * seeded one in chunk order, and chunks are filled in parallel: the orders
+ * don't depend on how many threads fill them.  A menu of up to
+ * MAX_SHARED_FOODS foods has few different random orders (27 for the
+ * default menu), so every order is one of a set of shared, unmodifiable
+ * lists, and generating an order allocates nothing; on longer menus, each
+ * order is drawn food by food.
+ */
+public class OrderGenerator {
+    private static final int MAX_PER_FOOD = 2;
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final int MAX_SHARED_FOODS = 6;
+
+    public static final List<Food> FIXED_ORDER = Collections.unmodifiableList(Arrays.asList(
+            FoodType.burger, FoodType.fries, FoodType.fries, FoodType.coffee));
+
+    /* Every random order of the default menu */
+    private static final List<List<Food>> DEFAULT_RANDOM_ORDERS = allOrders(Menu.DEFAULT);
+
+    private final long seed;
+
+    /**
+     * A generator with a seed of its own, i.e. a different workload every
+     * time.
+     */
+    public OrderGenerator() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    public OrderGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * A generator for the arrival times of the customers, seeded from this
+     * generator's seed but drawing a stream of its own, so the same seed
+     * gives the same arrivals and orders, independently of each other.
+     */
+    SplittableRandom arrivalRandom() {
+        return new SplittableRandom(~seed);
+    }
+
+    /**
+     * Every order of 0 to MAX_PER_FOOD of each food of the menu, with the
+     * first food's count as the most significant digit of the index (e.g.
+     * burgers * 9 + fries * 3 + coffees on the default menu).
+     */
+    private static List<List<Food>> allOrders(Menu menu) {
+        List<List<Food>> orders = new ArrayList<List<Food>>();
+        orders.add(List.of());
+        for (Food food : menu.getFoods()) {
+            List<List<Food>> longer = new ArrayList<List<Food>>(orders.size() * (MAX_PER_FOOD + 1));
+            for (List<Food> order : orders) {
+                for (int count = 0; count <= MAX_PER_FOOD; count++) {
+                    List<Food> withFood = new ArrayList<Food>(order);
+                    withFood.addAll(Collections.nCopies(count, food));
+                    longer.add(Collections.unmodifiableList(withFood));
+                }
+            }
+            orders = longer;
+        }
+        return orders;
+    }
+
+    /**
+     * Returns the orders of the given number of customers from the default
+     * menu, the fixed order for all of them or random ones.  Calling it
+     * again returns the same orders.
+     */
+    public List<List<Food>> orders(int numCustomers, boolean randomOrders) {
+        return orders(numCustomers, randomOrders, Menu.DEFAULT);
+    }
+
+    /**
+     * Returns the orders of the given number of customers from the given
+     * menu, its fixed order for all of them or random ones.  Calling it
+     * again returns the same orders.
+     */
+    public List<List<Food>> orders(int numCustomers, boolean randomOrders, Menu menu) {
+        if (!randomOrders) {
+            return Collections.nCopies(numCustomers, menu.getFixedOrder());
+        }
+        List<List<Food>> shared = menu == Menu.DEFAULT ? DEFAULT_RANDOM_ORDERS
+                : menu.size() <= MAX_SHARED_FOODS ? allOrders(menu) : null;
+
+        int numChunks = (numCustomers + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] chunkRandoms = new SplittableRandom[numChunks];
+        for (int chunk = 0; chunk < numChunks; chunk++) {
+            chunkRandoms[chunk] = root.split();
+        }
+
+        // Every chunk sets its own customers' orders, so the list is filled in concurrently
+        List<List<Food>> orders = new ArrayList<List<Food>>(Collections.<List<Food>>nCopies(numCustomers, null));
+        IntStream.range(0, numChunks).parallel().forEach(chunk -> {
+            SplittableRandom random = chunkRandoms[chunk];
+            int end = Math.min(numCustomers, (chunk + 1) * CHUNK_SIZE);
+            for (int customer = chunk * CHUNK_SIZE; customer < end; customer++) {
+                orders.set(customer, shared != null ? shared.get(random.nextInt(shared.size()))
+                        : randomOrder(menu, random));
+            }
+        });
+        return orders;
+    }
+
+    private static List<Food> randomOrder(Menu menu, SplittableRandom random) {
+        List<Food> order = new ArrayList<Food>();
+        for (Food food : menu.getFoods()) {
+            for (int count = random.nextInt(MAX_PER_FOOD + 1); count > 0; count--) {
+                order.add(food);
+            }
+        }
+        return Collections.unmodifiableList(order);
+    }
+}
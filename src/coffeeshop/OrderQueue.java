@@ -0,0 +1,93 @@
+package coffeeshop;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * OrderQueue hands the orders placed by Customers over to Cooks, in the
+ * order chosen by its OrderSchedulingPolicy (first come first served by
+ * default).  Each placed order wakes up exactly one waiting cook, rather
+ * than every idle cook competing for it.  Once the simulation has no more
+ * orders to give, the queue is closed: every cook then gets the orders
+ * still queued, and then goes home.
+ */
+public class OrderQueue {
+    private final OrderSchedulingPolicy policy;
+    private final MachineLoad machines;
+    private final WaitingOrders orders = new WaitingOrders();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition orderPlaced = lock.newCondition();
+    private boolean closed;
+    /* orders.size(), published for size() to read without locking */
+    private volatile int size;
+
+    public OrderQueue() {
+        this(OrderSchedulingPolicy.fifo(), food -> 0L);
+    }
+
+    /**
+     * @param policy   chooses which waiting order a cook takes next
+     * @param machines how busy the machines are, for the policy
+     */
+    public OrderQueue(OrderSchedulingPolicy policy, MachineLoad machines) {
+        this.policy = policy;
+        this.machines = machines;
+    }
+
+    /**
+     * Places the customer's order in the queue.
+     */
+    public void put(Customer customer) {
+        lock.lock();
+        try {
+            orders.add(customer, System.nanoTime());
+            size = orders.size();
+            orderPlaced.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the next order and returns its customer, or null once the
+     * queue has been closed and there are no orders left.
+     */
+    public Customer take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (orders.isEmpty()) {
+                if (closed) {
+                    return null;
+                }
+                orderPlaced.await();
+            }
+            Customer customer = orders.remove(policy.choose(orders, machines, System.nanoTime()));
+            size = orders.size();
+            return customer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the queue: every cook gets null from take() once the orders
+     * already queued are taken.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            orderPlaced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of orders waiting for a cook.  Doesn't lock, so it can be read
+     * while cooks are busy with the queue.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,105 @@
+package coffeeshop;
+
+import java.util.List;
+
+/**
+ * An OrderSchedulingPolicy decides which of the orders waiting for a cook
+ * the next free cook takes.  It is called by OrderQueue, under its lock, or
+ * by the discrete-event engine, with the orders waiting in the order they
+ * were placed.
+ * <p>
+ * The policies provided are:
+ * <ul>
+ * <li>fifo(): the oldest order first, in constant time (the default);</li>
+ * <li>shortestProcessingTime(): the order with the least cooking work first,
+ * i.e. the smallest sum of its items' cookTimeMS;</li>
+ * <li>machineAware(): the order expected to complete first given how busy
+ * its items' machines currently are;</li>
+ * <li>agingFifo(weight): shortest processing time, less the time the order
+ * has waited times the weight, so that long orders are not starved.</li>
+ * </ul>
+ * All but fifo() look at every waiting order, i.e. at most one per table.
+ */
+public interface OrderSchedulingPolicy {
+
+    /**
+     * Returns the index of the order to take next among the waiting ones,
+     * which are never empty.
+     *
+     * @param waiting  the orders waiting for a cook, oldest first
+     * @param machines how busy the machines are
+     * @param nowNanos the current time, on the same clock as the time the
+     *                 orders were placed
+     */
+    int choose(WaitingOrders waiting, MachineLoad machines, long nowNanos);
+
+    static OrderSchedulingPolicy fifo() {
+        return (waiting, machines, nowNanos) -> 0;
+    }
+
+    static OrderSchedulingPolicy shortestProcessingTime() {
+        return (waiting, machines, nowNanos) -> {
+            int best = 0;
+            long bestNanos = Long.MAX_VALUE;
+            for (int index = 0; index < waiting.size(); index++) {
+                long nanos = processingNanos(waiting.getCustomer(index).getOrder());
+                if (nanos < bestNanos) {
+                    best = index;
+                    bestNanos = nanos;
+                }
+            }
+            return best;
+        };
+    }
+
+    static OrderSchedulingPolicy machineAware() {
+        return (waiting, machines, nowNanos) -> {
+            int best = 0;
+            long bestNanos = Long.MAX_VALUE;
+            for (int index = 0; index < waiting.size(); index++) {
+                long nanos = 0;
+                for (Food food : waiting.getCustomer(index).getOrder()) {
+                    nanos = Math.max(nanos, machines.estimatedWaitNanos(food) + food.cookTimeMS * 1_000_000L);
+                }
+                if (nanos < bestNanos) {
+                    best = index;
+                    bestNanos = nanos;
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * @param weight how many nanoseconds of processing time a nanosecond
+     *               of waiting makes up for: 0 is shortest processing time,
+     *               and the larger the weight, the closer to FIFO
+     */
+    static OrderSchedulingPolicy agingFifo(double weight) {
+        return (waiting, machines, nowNanos) -> {
+            int best = 0;
+            double bestScore = Double.MAX_VALUE;
+            for (int index = 0; index < waiting.size(); index++) {
+                double score = processingNanos(waiting.getCustomer(index).getOrder())
+                        - weight * (nowNanos - waiting.getPlacedNanos(index));
+                if (score < bestScore) {
+                    best = index;
+                    bestScore = score;
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * The cooking work of an order: the sum of its items' cooking times, in
+     * nanoseconds.
+     */
+    static long processingNanos(List<Food> order) {
+        long nanos = 0;
+        for (Food food : order) {
+            nanos += food.cookTimeMS * 1_000_000L;
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,157 @@
+package coffeeshop;
+
+import java.util.Arrays;
+
+/**
+ * OrderTimings records how long a cook took to prepare each of its orders,
+ * from receiving the order to its last item being cooked, as monotonic
+ * nanosecond stamps (System.nanoTime(), or the virtual clock of a
+ * discrete-event simulation) kept in primitive arrays, one slot per order.
+ * <p>
+ * The cook opens a slot when it receives an order, and the machines close
+ * it as they finish the order's items, from their own threads, so every
+ * method is synchronized.  Slots are found by order number through an
+ * open-addressing table of primitive ints, so recording is constant time,
+ * and allocation-free but for growing the arrays, even when the cook has
+ * many orders in progress, as when cooks share the work item by item.
+ * <p>
+ * It also records how long the cook was busy, i.e. had at least one item
+ * cooking on a machine, as machines start and finish the cook's items.
+ */
+public class OrderTimings {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] startNanos = new long[INITIAL_CAPACITY];
+    private long[] endNanos = new long[INITIAL_CAPACITY];
+    private int size;
+    /* Open-addressing table from order number to slot + 1, 0 for an empty
+       entry; kept at most half full */
+    private int[] tableOrders = new int[2 * INITIAL_CAPACITY];
+    private int[] tableSlots = new int[2 * INITIAL_CAPACITY];
+    private int itemsCooking;
+    private long busySince;
+    private long busyNanos;
+
+    /**
+     * Records that the cook received the given order at the given time.
+     */
+    synchronized void orderReceived(int orderNumber, long nowNanos) {
+        if (size == startNanos.length) {
+            int capacity = size * 2;
+            startNanos = Arrays.copyOf(startNanos, capacity);
+            endNanos = Arrays.copyOf(endNanos, capacity);
+        }
+        startNanos[size] = nowNanos;
+        endNanos[size] = nowNanos;
+        if (2 * (size + 1) > tableSlots.length) {
+            rehash(2 * tableSlots.length);
+        }
+        put(orderNumber, size);
+        size++;
+    }
+
+    /**
+     * Records that an item of the given order was cooked at the given time.
+     */
+    synchronized void itemFinished(int orderNumber, long nowNanos) {
+        int slot = slotOf(orderNumber);
+        if (slot >= 0 && nowNanos > endNanos[slot]) {
+            endNanos[slot] = nowNanos;
+        }
+    }
+
+    /**
+     * Records that a machine started cooking an item for the cook.
+     */
+    synchronized void itemStarted(long nowNanos) {
+        if (itemsCooking++ == 0) {
+            busySince = nowNanos;
+        }
+    }
+
+    /**
+     * Records that a machine is done cooking an item for the cook.
+     */
+    synchronized void itemStopped(long nowNanos) {
+        if (--itemsCooking == 0) {
+            busyNanos += nowNanos - busySince;
+        }
+    }
+
+    private int slotOf(int orderNumber) {
+        int mask = tableSlots.length - 1;
+        for (int entry = hash(orderNumber) & mask; tableSlots[entry] != 0; entry = (entry + 1) & mask) {
+            if (tableOrders[entry] == orderNumber) {
+                return tableSlots[entry] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Maps the order to the slot, replacing the slot of an order received
+     * before under the same number.
+     */
+    private void put(int orderNumber, int slot) {
+        int mask = tableSlots.length - 1;
+        int entry = hash(orderNumber) & mask;
+        while (tableSlots[entry] != 0 && tableOrders[entry] != orderNumber) {
+            entry = (entry + 1) & mask;
+        }
+        tableOrders[entry] = orderNumber;
+        tableSlots[entry] = slot + 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] orders = tableOrders;
+        int[] slots = tableSlots;
+        tableOrders = new int[capacity];
+        tableSlots = new int[capacity];
+        for (int entry = 0; entry < slots.length; entry++) {
+            if (slots[entry] != 0) {
+                put(orders[entry], slots[entry] - 1);
+            }
+        }
+    }
+
+    private static int hash(int orderNumber) {
+        int hash = orderNumber * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    public synchronized int getOrderCount() {
+        return size;
+    }
+
+    /**
+     * How long the given order took to prepare so far, in nanoseconds, or
+     * -1 if the cook never received it.
+     */
+    public synchronized long getOrderNanos(int orderNumber) {
+        int slot = slotOf(orderNumber);
+        return slot < 0 ? -1 : endNanos[slot] - startNanos[slot];
+    }
+
+    public synchronized long getTotalNanos() {
+        long total = 0;
+        for (int slot = 0; slot < size; slot++) {
+            total += endNanos[slot] - startNanos[slot];
+        }
+        return total;
+    }
+
+    /**
+     * How long the cook had at least one item cooking, in nanoseconds.
+     */
+    public synchronized long getBusyNanos() {
+        return busyNanos;
+    }
+
+    /**
+     * Average time taken to prepare an order, in milliseconds, or
+     * Double.MAX_VALUE if the cook received no order.
+     */
+    public synchronized double getAverageMillis() {
+        return size == 0 ? Double.MAX_VALUE : getTotalNanos() / 1e6 / size;
+    }
+}
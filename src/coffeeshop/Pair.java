@@ -1,31 +0,0 @@
-package coffeeshop;
-
-/*
- * Generic helper class for keeping pairs as values of HashMap.
- */
-public class Pair<K, V> {
-
-    private K k;
-    private V v;
-
-    public Pair(K k, V v) {
-        this.k = k;
-        this.v = v;
-    }
-
-    public K getK() {
-        return k;
-    }
-
-    public void setK(K k) {
-        this.k = k;
-    }
-
-    public V getV() {
-        return v;
-    }
-
-    public void setV(V v) {
-        this.v = v;
-    }
-}
@@ -0,0 +1,240 @@
+package coffeeshop;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * ParameterSweep sizes a coffee shop: it runs the discrete-event engine for
+ * every combination of the given numbers of cooks, numbers of tables and
+ * machine capacities, in parallel, and measures for each one the throughput
+ * (customers served per second of simulated time) and the p95 latency of a
+ * customer's visit.  From those, it gives the throughput/latency frontier
+ * and the cheapest configuration that meets a latency target, under a
+ * simple linear cost model (a cost per cook, per table and per machine
+ * slot; 1 each by default).  Every configuration serves the same orders,
+ * from the same menu, with one machine per food on it.
+ * <p>
+ * By default every customer arrives at once, so the shop drains a burst;
+ * with an arrival schedule, throughput and latency are instead measured in
+ * the steady state, after a warm-up.
+ */
+public class ParameterSweep {
+    private final int numCustomers;
+    private final boolean randomOrders;
+    private final int[] cookCounts;
+    private final int[] tableCounts;
+    private final int[] machineCapacities;
+    private double costPerCook = 1;
+    private double costPerTable = 1;
+    private double costPerMachineSlot = 1;
+    private long seed = new OrderGenerator().getSeed();
+    private Menu menu = Menu.DEFAULT;
+    private ArrivalSchedule arrivalSchedule;
+    private long warmupMillis;
+
+    public ParameterSweep(int numCustomers, boolean randomOrders,
+                          int[] cookCounts, int[] tableCounts, int[] machineCapacities) {
+        this.numCustomers = numCustomers;
+        this.randomOrders = randomOrders;
+        this.cookCounts = cookCounts;
+        this.tableCounts = tableCounts;
+        this.machineCapacities = machineCapacities;
+    }
+
+    /**
+     * The values from {@code from} to {@code to}, both included, {@code step} apart.
+     */
+    public static int[] range(int from, int to, int step) {
+        if (step <= 0 || to < from) {
+            throw new IllegalArgumentException("Empty range " + from + ".." + to + " by " + step);
+        }
+        int[] values = new int[(to - from) / step + 1];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = from + index * step;
+        }
+        return values;
+    }
+
+    /**
+     * Seeds the random orders.  Every configuration of a sweep is simulated
+     * with the same orders; by default, a sweep draws its own seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the foods every configuration serves, and so its machines; the
+     * DEFAULT menu by default.
+     */
+    public void setMenu(Menu menu) {
+        this.menu = menu;
+    }
+
+    /**
+     * Makes customers arrive on the given schedule, the same for every
+     * configuration, and measures the steady-state throughput and p95
+     * latency of the customers arriving after the warm-up.
+     */
+    public void setArrivals(ArrivalSchedule arrivalSchedule, long warmupMillis) {
+        this.arrivalSchedule = arrivalSchedule;
+        this.warmupMillis = warmupMillis;
+    }
+
+    /**
+     * Sets the cost of a cook, of a table and of a slot of a machine; a
+     * configuration costs the sum over its cooks, tables and the slots of
+     * its machines, one per food on the menu.
+     */
+    public void setCosts(double perCook, double perTable, double perMachineSlot) {
+        this.costPerCook = perCook;
+        this.costPerTable = perTable;
+        this.costPerMachineSlot = perMachineSlot;
+    }
+
+    public List<Result> run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates every configuration of the grid on the given pool and
+     * returns their results, in grid order (cooks, then tables, then
+     * capacity).
+     */
+    public List<Result> run(ForkJoinPool pool) {
+        List<int[]> grid = new ArrayList<int[]>();
+        for (int numCooks : cookCounts) {
+            for (int numTables : tableCounts) {
+                for (int machineCapacity : machineCapacities) {
+                    grid.add(new int[]{numCooks, numTables, machineCapacity});
+                }
+            }
+        }
+        return pool.submit(() -> grid.parallelStream()
+                .map(configuration -> evaluate(configuration[0], configuration[1], configuration[2]))
+                .collect(Collectors.toList())).join();
+    }
+
+    private Result evaluate(int numCooks, int numTables, int machineCapacity) {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(numCustomers, numCooks,
+                numTables, machineCapacity, randomOrders, new EventSink[0]);
+        simulation.setSeed(seed);
+        simulation.setMenu(menu);
+        if (arrivalSchedule != null) {
+            simulation.setArrivalSchedule(arrivalSchedule);
+            simulation.setWarmupMillis(warmupMillis);
+        }
+        simulation.run();
+        double cost = numCooks * costPerCook + numTables * costPerTable
+                + menu.size() * machineCapacity * costPerMachineSlot;
+        if (arrivalSchedule != null) {
+            SteadyStateStats steadyState = simulation.getSteadyState();
+            return new Result(numCooks, numTables, machineCapacity, cost, steadyState.getThroughput(),
+                    steadyState.getVisit().getPercentileMillis(95));
+        }
+        double throughput = simulation.getClockNanos() == 0 ? 0.0
+                : numCustomers * 1e9 / simulation.getClockNanos();
+        return new Result(numCooks, numTables, machineCapacity, cost, throughput,
+                simulation.getLatencies().getVisit().getPercentileMillis(95));
+    }
+
+    /**
+     * The results no other result beats on both throughput and p95 latency,
+     * by increasing throughput.
+     */
+    public static List<Result> frontier(List<Result> results) {
+        List<Result> frontier = new ArrayList<Result>();
+        for (Result result : results) {
+            boolean dominated = false;
+            for (Result other : results) {
+                if (other.dominates(result)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                frontier.add(result);
+            }
+        }
+        frontier.sort(Comparator.comparingDouble(Result::getThroughput));
+        return frontier;
+    }
+
+    /**
+     * The cheapest result whose p95 visit latency is at most the given
+     * target, the fastest one among equally cheap ones, if any meets it.
+     */
+    public static Optional<Result> cheapest(List<Result> results, double p95TargetMillis) {
+        return results.stream()
+                .filter(result -> result.getP95Millis() <= p95TargetMillis)
+                .min(Comparator.comparingDouble(Result::getCost)
+                        .thenComparingDouble(Result::getP95Millis));
+    }
+
+    /**
+     * The outcome of simulating one configuration.
+     */
+    public static final class Result {
+        private final int numCooks;
+        private final int numTables;
+        private final int machineCapacity;
+        private final double cost;
+        private final double throughput;
+        private final double p95Millis;
+
+        Result(int numCooks, int numTables, int machineCapacity,
+               double cost, double throughput, double p95Millis) {
+            this.numCooks = numCooks;
+            this.numTables = numTables;
+            this.machineCapacity = machineCapacity;
+            this.cost = cost;
+            this.throughput = throughput;
+            this.p95Millis = p95Millis;
+        }
+
+        boolean dominates(Result other) {
+            return throughput >= other.throughput && p95Millis <= other.p95Millis
+                    && (throughput > other.throughput || p95Millis < other.p95Millis);
+        }
+
+        public int getNumCooks() {
+            return numCooks;
+        }
+
+        public int getNumTables() {
+            return numTables;
+        }
+
+        public int getMachineCapacity() {
+            return machineCapacity;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+
+        /**
+         * Customers served per second of simulated time.
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * 95th percentile of the time between a customer starting and
+         * leaving, in milliseconds of simulated time.
+         */
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        public String toString() {
+            return String.format("%d cooks; %d tables; machine capacity %d: cost %.1f; %.2f customers/s; p95 %.1f ms",
+                    numCooks, numTables, machineCapacity, cost, throughput, p95Millis);
+        }
+    }
+}
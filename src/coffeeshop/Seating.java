@@ -0,0 +1,211 @@
+package coffeeshop;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seating admits Customers into the coffee shop: a customer takes one of the
+ * tables, waiting for one to be free if needed, and gives it back when
+ * leaving.  Both are constant time.  With fair seating, waiting customers
+ * are seated in the order they arrived; otherwise a customer arriving just
+ * as a table frees up may take it first.
+ * <p>
+ * Under an AdmissionPolicy, customers finding no free table may instead be
+ * turned away, balk or renege.  The wait a customer expects is one mean stay
+ * at a table, so far, per table, for itself and every customer ahead.
+ * <p>
+ * Seating also keeps track of how long customers waited for a table, how
+ * long they stayed, and how many were shed.
+ */
+public class Seating {
+    private final int numTables;
+    private final Semaphore tables;
+    private final LongAdder customersSeated = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+    private final AtomicInteger line = new AtomicInteger();
+    private final LongAdder staysRecorded = new LongAdder();
+    private final LongAdder totalStayNanos = new LongAdder();
+    private final LongAdder turnedAway = new LongAdder();
+    private final LongAdder balked = new LongAdder();
+    private final LongAdder reneged = new LongAdder();
+
+    public Seating(int numTables, boolean fair) {
+        this.numTables = numTables;
+        this.tables = new Semaphore(numTables, fair);
+    }
+
+    /**
+     * Waits until a table is free and takes it.  Returns how long the
+     * customer waited, in nanoseconds.
+     */
+    public long takeTable() {
+        long start = System.nanoTime();
+        tables.acquireUninterruptibly();
+        long waited = System.nanoTime() - start;
+        recordWait(waited);
+        return waited;
+    }
+
+    /**
+     * Takes a free table or, if the policy lets the customer join the line,
+     * waits for one, until the policy's reneging time.  Returns SEATED, or
+     * how the customer was shed; an interrupted customer, e.g. one sent away
+     * as the shop stops, is turned away.
+     */
+    public AdmissionPolicy.Outcome takeTable(AdmissionPolicy policy) {
+        long start = System.nanoTime();
+        boolean seated;
+        AdmissionPolicy.Outcome shed = AdmissionPolicy.Outcome.RENEGED;
+        try {
+            seated = tables.tryAcquire(0, TimeUnit.NANOSECONDS);
+            if (!seated) {
+                AdmissionPolicy.Outcome outcome = joinLine(policy);
+                if (outcome != AdmissionPolicy.Outcome.WAITING) {
+                    recordShed(outcome);
+                    return outcome;
+                }
+                try {
+                    if (policy.getRenegeNanos() < 0) {
+                        tables.acquire();
+                        seated = true;
+                    } else {
+                        seated = tables.tryAcquire(policy.getRenegeNanos(), TimeUnit.NANOSECONDS);
+                    }
+                } finally {
+                    line.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            seated = false;
+            shed = AdmissionPolicy.Outcome.TURNED_AWAY;
+        }
+        if (!seated) {
+            recordShed(shed);
+            return shed;
+        }
+        recordWait(System.nanoTime() - start);
+        return AdmissionPolicy.Outcome.SEATED;
+    }
+
+    /**
+     * Joins the line if the policy lets the customer, as one atomic step, so
+     * that the line never gets longer than the policy allows.
+     */
+    private AdmissionPolicy.Outcome joinLine(AdmissionPolicy policy) {
+        while (true) {
+            int waiting = line.get();
+            AdmissionPolicy.Outcome outcome = policy.arrive(waiting, estimatedWaitNanos(waiting));
+            if (outcome != AdmissionPolicy.Outcome.WAITING || line.compareAndSet(waiting, waiting + 1)) {
+                return outcome;
+            }
+        }
+    }
+
+    /**
+     * How long a customer joining a line of the given length would wait: a
+     * mean stay per table for itself and every customer ahead; 0 until a
+     * customer has left.
+     */
+    long estimatedWaitNanos(int waiting) {
+        long stays = staysRecorded.sum();
+        return stays == 0 ? 0 : totalStayNanos.sum() / stays * (waiting + 1) / numTables;
+    }
+
+    /**
+     * Gives back a table taken with takeTable().
+     */
+    public void leaveTable() {
+        tables.release();
+    }
+
+    /**
+     * Records that a customer waited the given time for a table.
+     */
+    void recordWait(long waitNanos) {
+        customersSeated.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    /**
+     * Records that a customer stayed at its table for the given time.
+     */
+    void recordStay(long stayNanos) {
+        staysRecorded.increment();
+        totalStayNanos.add(stayNanos);
+    }
+
+    /**
+     * Records that a customer was turned away, balked or reneged.
+     */
+    void recordShed(AdmissionPolicy.Outcome outcome) {
+        switch (outcome) {
+            case TURNED_AWAY:
+                turnedAway.increment();
+                break;
+            case BALKED:
+                balked.increment();
+                break;
+            case RENEGED:
+                reneged.increment();
+                break;
+            default:
+                throw new IllegalArgumentException(outcome + " is not shedding");
+        }
+    }
+
+    public int getNumTables() {
+        return numTables;
+    }
+
+    public int getFreeTables() {
+        return tables.availablePermits();
+    }
+
+    public long getCustomersSeated() {
+        return customersSeated.sum();
+    }
+
+    /**
+     * Customers waiting in line for a table taken with
+     * takeTable(AdmissionPolicy).
+     */
+    public int getLineLength() {
+        return line.get();
+    }
+
+    public long getCustomersTurnedAway() {
+        return turnedAway.sum();
+    }
+
+    public long getCustomersBalked() {
+        return balked.sum();
+    }
+
+    public long getCustomersReneged() {
+        return reneged.sum();
+    }
+
+    public long getCustomersShed() {
+        return turnedAway.sum() + balked.sum() + reneged.sum();
+    }
+
+    public double getAverageStayMillis() {
+        long stays = staysRecorded.sum();
+        return stays == 0 ? 0.0 : totalStayNanos.sum() / 1e6 / stays;
+    }
+
+    public double getAverageWaitMillis() {
+        long seated = customersSeated.sum();
+        return seated == 0 ? 0.0 : totalWaitNanos.sum() / 1e6 / seated;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+}
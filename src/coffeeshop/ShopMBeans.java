@@ -0,0 +1,188 @@
+package coffeeshop;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The MBeans of a running CoffeeShop, registered with the platform MBean
+ * server under the "coffeeshop" domain: one for the shop, one per machine
+ * and one per cook, all with the shop's number in their name, e.g.
+ * coffeeshop:type=Machine,shop=1,name=Grill.  Shops are numbered in the
+ * order they register, from 1.
+ */
+final class ShopMBeans {
+    static final String DOMAIN = "coffeeshop";
+    private static final AtomicInteger shopCount = new AtomicInteger();
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> names = new ArrayList<ObjectName>();
+
+    /**
+     * Registers the MBeans of the shop, whose machines and cooks must be
+     * built.
+     *
+     * @throws IllegalStateException if an MBean can't be registered
+     */
+    static ShopMBeans register(CoffeeShop shop) {
+        ShopMBeans beans = new ShopMBeans();
+        String shopNumber = Integer.toString(shopCount.incrementAndGet());
+        try {
+            beans.add(new ShopView(shop), "type=CoffeeShop,shop=" + shopNumber);
+            for (Machine machine : shop.getMachines()) {
+                beans.add(new MachineView(machine),
+                        "type=Machine,shop=" + shopNumber + ",name=" + nameValue(machine.getMachineName()));
+            }
+            for (Cook cook : shop.getCooks()) {
+                beans.add(new CookView(cook),
+                        "type=Cook,shop=" + shopNumber + ",name=" + nameValue(cook.toString()));
+            }
+        } catch (JMException e) {
+            beans.unregister();
+            throw new IllegalStateException("Cannot register the MBeans of shop " + shopNumber, e);
+        }
+        return beans;
+    }
+
+    /**
+     * The name as an ObjectName value, quoted only if it has to be.
+     */
+    private static String nameValue(String name) {
+        return name.matches("[^,=:\"*?\\n]+") ? name : ObjectName.quote(name);
+    }
+
+    private void add(Object bean, String properties) throws JMException {
+        ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+        server.registerMBean(bean, name);
+        names.add(name);
+    }
+
+    /**
+     * Unregisters every MBean of the shop.
+     */
+    void unregister() {
+        for (ObjectName name : names) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone, e.g. unregistered by a JMX client
+            }
+        }
+        names.clear();
+    }
+
+    private static final class ShopView implements CoffeeShopMXBean {
+        private final CoffeeShop shop;
+        private long sampledNanos;
+        private long sampledEvents;
+
+        ShopView(CoffeeShop shop) {
+            this.shop = shop;
+            this.sampledNanos = System.nanoTime();
+        }
+
+        public int getOrdersWaiting() {
+            return shop.getOrdersWaiting();
+        }
+
+        public int getCustomersSeated() {
+            return shop.getSeating().getNumTables() - shop.getSeating().getFreeTables();
+        }
+
+        public int getFreeTables() {
+            return shop.getSeating().getFreeTables();
+        }
+
+        public int getLineLength() {
+            return shop.getSeating().getLineLength();
+        }
+
+        public long getCustomersShed() {
+            return shop.getSeating().getCustomersShed();
+        }
+
+        public int getBusyCooks() {
+            int busy = 0;
+            for (Cook cook : shop.getCooks()) {
+                if (cook.isBusy()) {
+                    busy++;
+                }
+            }
+            return busy;
+        }
+
+        public int getIdleCooks() {
+            return shop.getCooks().size() - getBusyCooks();
+        }
+
+        public long getEventCount() {
+            return shop.getEventCount();
+        }
+
+        public synchronized double getEventsPerSecond() {
+            long now = System.nanoTime();
+            long events = shop.getEventCount();
+            double perSecond = now == sampledNanos ? 0.0 : (events - sampledEvents) * 1e9 / (now - sampledNanos);
+            sampledNanos = now;
+            sampledEvents = events;
+            return perSecond;
+        }
+    }
+
+    private static final class MachineView implements MachineMXBean {
+        private final Machine machine;
+
+        MachineView(Machine machine) {
+            this.machine = machine;
+        }
+
+        public String getFood() {
+            return machine.getMachineFoodType().toString();
+        }
+
+        public int getCapacity() {
+            return machine.getCapacity();
+        }
+
+        public int getItemsCooking() {
+            return machine.getItemsCooking();
+        }
+
+        public int getItemsWaiting() {
+            // The counters are read one after the other, as items come and go
+            return Math.max(0, machine.getItemsInFlight() - machine.getItemsCooking());
+        }
+
+        public double getSlotUtilization() {
+            return (double) machine.getItemsCooking() / machine.getCapacity();
+        }
+
+        public long getItemsCooked() {
+            return machine.getItemsCooked();
+        }
+    }
+
+    private static final class CookView implements CookMXBean {
+        private final Cook cook;
+
+        CookView(Cook cook) {
+            this.cook = cook;
+        }
+
+        public boolean isBusy() {
+            return cook.isBusy();
+        }
+
+        public int getOrdersReceived() {
+            return cook.getOrderTimings().getOrderCount();
+        }
+
+        public double getBusyMillis() {
+            return cook.getOrderTimings().getBusyNanos() / 1e6;
+        }
+    }
+}
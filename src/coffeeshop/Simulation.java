@@ -1,37 +1,70 @@
 package coffeeshop;
 
-import java.util.Collections;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Simulation is the main class used to run the simulation.
  */
 public class Simulation {
-    // List to track simulation events during simulation
-    public static List<SimulationEvent> events;
-
-    public static Queue<Customer> orderList = new LinkedList<Customer>();
-    public static Queue<Customer> currCapacity = new LinkedList<Customer>();
-    public static Map<Customer, Boolean> completedOrder = new HashMap<Customer, Boolean>();
-    public static Machine grill;
-    public static Machine fryer;
-    public static Machine coffeeMaker2000;
+    // Log the events of Machines running outside of any shop are written to, or null to drop them
+    public static EventLog eventLog;
+    // Whether waiting customers are seated in the order they arrived
+    public static boolean fairSeating = true;
+    // Seed of the random orders, or null for a different workload every run
+    public static Long orderSeed;
+    // How cooks pick the next order among the waiting ones
+    public static OrderSchedulingPolicy schedulingPolicy = OrderSchedulingPolicy.fifo();
+    // Whether cooks take whole orders or single items
+    public static WorkMode workMode = WorkMode.ORDER;
+    // Batch window of the machines in milliseconds, or null to cook in independent slots
+    public static Long batchWindowMillis;
+    // The foods served and the machines making them
+    public static Menu menu = Menu.DEFAULT;
+    // When the customers head to the coffee shop
+    public static ArrivalSchedule arrivalSchedule = ArrivalSchedule.burst();
+    // How long customers arrive before the shop's steady-state stats count them
+    public static long warmupMillis;
+    // What customers finding no free table do
+    public static AdmissionPolicy admissionPolicy = AdmissionPolicy.UNLIMITED;
+    // Whether the shop registers MBeans while it runs, for JMX tools to watch it
+    public static boolean jmxEnabled;
+    // The shop run by the last call to runSimulation()
+    public static CoffeeShop shop;
+    // Told about every event as it is logged, e.g. to keep LiveMetrics
+    private static final List<SimulationEventListener> listeners =
+            new CopyOnWriteArrayList<SimulationEventListener>();
 
 
     /**
-     * Used by other classes in the simulation to log events
+     * Logs an event from outside of any CoffeeShop, e.g. from a Machine
+     * built on its own; the actors of a shop log to the shop's event log.
+     * The event is passed to the listeners right away, then handed to the
+     * sinks of eventLog asynchronously, unless no eventLog was set.
      *
      * @param event
      */
     public static void logEvent(SimulationEvent event) {
-        events.add(event);
-        System.out.println(event);
+        for (SimulationEventListener listener : listeners) {
+            listener.onEvent(event);
+        }
+        EventLog log = eventLog;
+        if (log != null) {
+            log.add(event);
+        }
+    }
+
+    /**
+     * Registers a listener told about every event logged by the shops
+     * runSimulation() starts from now on, and by Simulation.logEvent(),
+     * until it is removed.  Listeners stay registered across simulations.
+     */
+    public static void addListener(SimulationEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(SimulationEventListener listener) {
+        listeners.remove(listener);
     }
 
 
@@ -54,104 +87,64 @@ public class Simulation {
             int machineCapacity,
             boolean randomOrders
     ) {
+        return runSimulation(numCustomers, numCooks, numTables, machineCapacity, randomOrders,
+                ExecutionMode.PLATFORM);
+    }
 
-        // Create a synchronizedList to log all events
-        events = Collections.synchronizedList(new ArrayList<SimulationEvent>());
-
-        // Start the simulation
-        logEvent(SimulationEvent.startSimulation(numCustomers,
-                numCooks,
-                numTables,
-                machineCapacity));
-
-        // Create Machine threads
-        grill = new Machine("Grill", FoodType.burger, machineCapacity);
-        fryer = new Machine("Fryer", FoodType.fries, machineCapacity);
-        coffeeMaker2000 = new Machine("CoffeeMaker2000", FoodType.coffee, machineCapacity);
-        logEvent(SimulationEvent.machineStarting(grill, FoodType.burger, machineCapacity));
-        logEvent(SimulationEvent.machineStarting(coffeeMaker2000, FoodType.coffee, machineCapacity));
-        logEvent(SimulationEvent.machineStarting(fryer, FoodType.fries, machineCapacity));
-
-
-        // Create Cook threads
-        Thread[] cooks = new Thread[numCooks];
-        for (int index = 0; index < numCooks; index++) {
-            cooks[index] = new Thread(
-                    new Cook("Cook " + index));
-        }
-        for (int index = 0; index < numCooks; index++) {
-            cooks[index].start();
-        }
-
+    /**
+     * Same as {@link #runSimulation(int, int, int, int, boolean)}, running
+     * every Customer, Cook and cooked item on threads of the given mode.
+     *
+     * @param executionMode the kind of thread the simulation actors run on
+     */
+    public static List<SimulationEvent> runSimulation(
+            int numCustomers, int numCooks,
+            int numTables,
+            int machineCapacity,
+            boolean randomOrders,
+            ExecutionMode executionMode
+    ) {
+        return runSimulation(numCustomers, numCooks, numTables, machineCapacity, randomOrders,
+                executionMode, new MemoryEventSink(), new ConsoleEventSink());
+    }
 
-        // Build the customers, each with an order assigned.
-        Thread[] customers = new Thread[numCustomers];
-        LinkedList<Food> order;
-        if (!randomOrders) {
-            order = new LinkedList<Food>();
-            order.add(FoodType.burger);
-            order.add(FoodType.fries);
-            order.add(FoodType.fries);
-            order.add(FoodType.coffee);
-
-            for (int i = 0; i < customers.length; i++) {
-                customers[i] = new Thread(
-                        new Customer("Customer " + i, order)
-                );
-            }
-
-        } else {
-            for (int i = 0; i < customers.length; i++) {
-                Random rnd = new Random();
-                int burgerCount = rnd.nextInt(3);
-                int friesCount = rnd.nextInt(3);
-                int coffeeCount = rnd.nextInt(3);
-
-                order = new LinkedList<Food>();
-                for (int b = 0; b < burgerCount; b++) {
-                    order.add(FoodType.burger);
-                }
-                for (int f = 0; f < friesCount; f++) {
-                    order.add(FoodType.fries);
-                }
-                for (int c = 0; c < coffeeCount; c++) {
-                    order.add(FoodType.coffee);
-                }
-
-                customers[i] = new Thread(
-                        new Customer("Customer " + (i), order)
-                );
-            }
+    /**
+     * Same as {@link #runSimulation(int, int, int, int, boolean, ExecutionMode)},
+     * writing the events to the given sinks instead of keeping them in memory
+     * and printing them.  Returns the events kept by the first EventStore
+     * (e.g. a MemoryEventSink) among the sinks, or an empty list if there is
+     * none; passing no sink at all runs the simulation silently.
+     *
+     * @param sinks the sinks the simulation events are written to
+     */
+    public static List<SimulationEvent> runSimulation(
+            int numCustomers, int numCooks,
+            int numTables,
+            int machineCapacity,
+            boolean randomOrders,
+            ExecutionMode executionMode,
+            EventSink... sinks
+    ) {
+        shop = new CoffeeShop(numCustomers, numCooks, numTables, machineCapacity, randomOrders,
+                executionMode, sinks);
+        shop.setFairSeating(fairSeating);
+        shop.setSchedulingPolicy(schedulingPolicy);
+        shop.setWorkMode(workMode);
+        shop.setMenu(menu);
+        shop.setArrivalSchedule(arrivalSchedule);
+        shop.setWarmupMillis(warmupMillis);
+        shop.setAdmissionPolicy(admissionPolicy);
+        shop.setJmxEnabled(jmxEnabled);
+        if (batchWindowMillis != null) {
+            shop.setBatchCooking(batchWindowMillis);
         }
-
-        // Start the customers -> they will try to enter the Coffee Shop
-        for (Thread customer : customers) {
-            customer.start();
+        if (orderSeed != null) {
+            shop.setSeed(orderSeed);
         }
-
-        try {
-            // Wait for the customer threads to end
-            for (Thread customer : customers) {
-                customer.join();
-            }
-
-            // Interrupt cooks and wait for them to end
-            for (Thread cook : cooks) cook.interrupt();
-            for (Thread cook : cooks) cook.join();
-
-        } catch (InterruptedException e) {
-            System.out.println("Simulation thread interrupted.");
+        for (SimulationEventListener listener : listeners) {
+            shop.addListener(listener);
         }
-
-        // Shut down machines
-        logEvent(SimulationEvent.machineEnding(grill));
-        logEvent(SimulationEvent.machineEnding(fryer));
-        logEvent(SimulationEvent.machineEnding(coffeeMaker2000));
-
-        // Done with simulation
-        logEvent(SimulationEvent.endSimulation());
-
-        return events;
+        return shop.run();
     }
 
     /*
@@ -1,6 +1,5 @@
 package coffeeshop;
 
-import java.time.Instant;
 import java.util.List;
 
 /**
@@ -39,6 +38,22 @@ public class SimulationEvent {
         this.simParams = simParams;
     }
 
+    /**
+     * Rebuilds an event from its fields, for event stores that keep events
+     * in another form.
+     */
+    static SimulationEvent restore(EventType event,
+                                   Cook cook,
+                                   Customer customer,
+                                   Machine machine,
+                                   Food food,
+                                   List<Food> orderFood,
+                                   int orderNumber,
+                                   int[] simParams) {
+        return new SimulationEvent(event, cook, customer, machine, food,
+                orderFood, orderNumber, simParams);
+    }
+
     /* Simulation events */
     public static SimulationEvent startSimulation(int numCustomers,
                                                   int numCooks,
@@ -103,6 +118,44 @@ public class SimulationEvent {
                 null, null, null, 0, null);
     }
 
+    public static SimulationEvent customerTurnedAway(Customer customer) {
+        return new SimulationEvent(EventType.CustomerTurnedAway,
+                null,
+                customer,
+                null, null, null, 0, null);
+    }
+
+    public static SimulationEvent customerBalked(Customer customer) {
+        return new SimulationEvent(EventType.CustomerBalked,
+                null,
+                customer,
+                null, null, null, 0, null);
+    }
+
+    public static SimulationEvent customerReneged(Customer customer) {
+        return new SimulationEvent(EventType.CustomerReneged,
+                null,
+                customer,
+                null, null, null, 0, null);
+    }
+
+    /**
+     * The event of a customer shed by the admission policy, i.e. turned
+     * away, balking or reneging.
+     */
+    static SimulationEvent customerShed(Customer customer, AdmissionPolicy.Outcome outcome) {
+        switch (outcome) {
+            case TURNED_AWAY:
+                return customerTurnedAway(customer);
+            case BALKED:
+                return customerBalked(customer);
+            case RENEGED:
+                return customerReneged(customer);
+            default:
+                throw new IllegalArgumentException(outcome + " is not shedding");
+        }
+    }
+
     /* Cook events */
     public static SimulationEvent cookStarting(Cook cook) {
         return new SimulationEvent(EventType.CookStarting,
@@ -115,8 +168,6 @@ public class SimulationEvent {
     public static SimulationEvent cookReceivedOrder(Cook cook,
                                                     List<Food> order,
                                                     int orderNumber) {
-
-        cook.getOrderStartEnd().put(orderNumber, new Pair<>(Instant.now(), Instant.now()));
         return new SimulationEvent(EventType.CookReceivedOrder,
                 cook,
                 null, null, null,
@@ -137,8 +188,6 @@ public class SimulationEvent {
 
     public static SimulationEvent cookFinishedFood(Cook cook, Food food,
                                                    int orderNumber) {
-
-        cook.getOrderStartEnd().get(orderNumber).setV(Instant.now());
         return new SimulationEvent(EventType.CookFinishedFood,
                 cook,
                 null, null,
@@ -157,6 +206,18 @@ public class SimulationEvent {
                 null);
     }
 
+    /**
+     * The cook gave up on an order, as one of its items couldn't be cooked;
+     * its customer leaves without it.
+     */
+    public static SimulationEvent cookFailedOrder(Cook cook, int orderNumber) {
+        return new SimulationEvent(EventType.CookFailedOrder,
+                cook,
+                null, null, null, null,
+                orderNumber,
+                null);
+    }
+
     public static SimulationEvent cookEnding(Cook cook) {
         return new SimulationEvent(EventType.CookEnding, cook,
                 null, null, null, null, 0, null);
@@ -258,6 +319,15 @@ public class SimulationEvent {
             case CustomerLeavingCoffeeShop:
                 return customer + " leaving coffee shop.";
 
+            case CustomerTurnedAway:
+                return customer + " turned away: the line is full.";
+
+            case CustomerBalked:
+                return customer + " balked at the wait for a table.";
+
+            case CustomerReneged:
+                return customer + " gave up waiting for a table.";
+
             /* Cook Events */
             case CookStarting:
                 return cook + " reporting for work.";
@@ -274,6 +344,9 @@ public class SimulationEvent {
             case CookCompletedOrder:
                 return cook + " completed order " + orderNumber;
 
+            case CookFailedOrder:
+                return cook + " could not complete order " + orderNumber;
+
             case CookEnding:
                 return cook + " going home for the night.";
 
@@ -317,6 +390,13 @@ public class SimulationEvent {
         MachineStarting,
         MachineStartingFood,
         MachineDoneFood,
-        MachineEnding
+        MachineEnding,
+        /* Customers shed by the admission policy, after the others so that
+           logs written before keep their type numbers */
+        CustomerTurnedAway,
+        CustomerBalked,
+        CustomerReneged,
+        /* Orders failed on a machine, last for the same reason */
+        CookFailedOrder
     }
 }
@@ -0,0 +1,11 @@
+package coffeeshop;
+
+/**
+ * A SimulationEventListener is told about every event as it is logged,
+ * synchronously, on the thread of the actor logging it.  Listeners are
+ * therefore called concurrently and must be thread-safe and cheap.
+ */
+public interface SimulationEventListener {
+
+    void onEvent(SimulationEvent event);
+}
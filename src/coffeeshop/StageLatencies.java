@@ -0,0 +1,74 @@
+package coffeeshop;
+
+/**
+ * Histograms of how long each stage of the customer lifecycle takes, i.e.
+ * the time between a customer's consecutive events, and of how long cooks
+ * take to prepare an order:
+ * <ul>
+ * <li>waiting for a table: from starting to entering the coffee shop,</li>
+ * <li>placing the order: from entering to placing the order,</li>
+ * <li>waiting for the order: from placing to receiving it,</li>
+ * <li>leaving: from receiving the order to leaving,</li>
+ * <li>visit: from starting to leaving,</li>
+ * <li>preparing an order: from a cook receiving it to completing it.</li>
+ * </ul>
+ * Machines keep their own queue wait and cooking time histograms.
+ */
+public class StageLatencies {
+    private final LatencyHistogram waitForTable = new LatencyHistogram();
+    private final LatencyHistogram placeOrder = new LatencyHistogram();
+    private final LatencyHistogram waitForOrder = new LatencyHistogram();
+    private final LatencyHistogram leave = new LatencyHistogram();
+    private final LatencyHistogram visit = new LatencyHistogram();
+    private final LatencyHistogram prepareOrder = new LatencyHistogram();
+
+    /**
+     * Records the stages of a customer's visit from the times, in
+     * nanoseconds, at which it started, entered, placed its order,
+     * received it and left.
+     */
+    void recordVisit(long started, long entered, long placed, long received, long left) {
+        waitForTable.record(entered - started);
+        placeOrder.record(placed - entered);
+        waitForOrder.record(received - placed);
+        leave.record(left - received);
+        visit.record(left - started);
+    }
+
+    void recordOrderPrepared(long nanos) {
+        prepareOrder.record(nanos);
+    }
+
+    public LatencyHistogram getWaitForTable() {
+        return waitForTable;
+    }
+
+    public LatencyHistogram getPlaceOrder() {
+        return placeOrder;
+    }
+
+    public LatencyHistogram getWaitForOrder() {
+        return waitForOrder;
+    }
+
+    public LatencyHistogram getLeave() {
+        return leave;
+    }
+
+    public LatencyHistogram getVisit() {
+        return visit;
+    }
+
+    public LatencyHistogram getPrepareOrder() {
+        return prepareOrder;
+    }
+
+    public String toString() {
+        return "Wait for table: " + waitForTable + "\n" +
+                "Place order: " + placeOrder + "\n" +
+                "Wait for order: " + waitForOrder + "\n" +
+                "Leave: " + leave + "\n" +
+                "Visit: " + visit + "\n" +
+                "Prepare order: " + prepareOrder;
+    }
+}
@@ -0,0 +1,115 @@
+package coffeeshop;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How a shop behaves once it has warmed up, under an open-loop arrival
+ * schedule: the measurement window runs from the end of the warm-up to the
+ * last arrival, after which the shop only drains.  It counts the customers
+ * arriving and leaving within the window, giving the offered load and the
+ * throughput, the customers arriving within it who were shed by the
+ * admission policy, and the visits of those who were served.  Times
+ * are in nanoseconds from the start of the run.  Thread-safe.
+ */
+public class SteadyStateStats {
+    private final long warmupNanos;
+    private final long endNanos;
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder departures = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LatencyHistogram visit = new LatencyHistogram();
+
+    /**
+     * Stats over the window from warmupNanos to endNanos, empty if it ends
+     * before it starts.
+     */
+    public SteadyStateStats(long warmupNanos, long endNanos) {
+        this.warmupNanos = warmupNanos;
+        this.endNanos = endNanos;
+    }
+
+    private boolean inWindow(long nanos) {
+        return nanos >= warmupNanos && nanos <= endNanos;
+    }
+
+    /**
+     * Records the visit of a customer from its arrival and departure times.
+     */
+    void record(long arrivedNanos, long leftNanos) {
+        if (inWindow(arrivedNanos)) {
+            arrivals.increment();
+            visit.record(leftNanos - arrivedNanos);
+        }
+        if (inWindow(leftNanos)) {
+            departures.increment();
+        }
+    }
+
+    /**
+     * Records a customer shed by the admission policy from its arrival time.
+     */
+    void recordShed(long arrivedNanos) {
+        if (inWindow(arrivedNanos)) {
+            arrivals.increment();
+            shed.increment();
+        }
+    }
+
+    public long getWarmupNanos() {
+        return warmupNanos;
+    }
+
+    /**
+     * Length of the measurement window, in nanoseconds; 0 if it is empty.
+     */
+    public long getWindowNanos() {
+        return Math.max(0, endNanos - warmupNanos);
+    }
+
+    /**
+     * Customers arriving per second within the window.
+     */
+    public double getArrivalRate() {
+        long window = getWindowNanos();
+        return window == 0 ? 0.0 : arrivals.sum() * 1e9 / window;
+    }
+
+    /**
+     * Customers leaving per second within the window.
+     */
+    public double getThroughput() {
+        long window = getWindowNanos();
+        return window == 0 ? 0.0 : departures.sum() * 1e9 / window;
+    }
+
+    /**
+     * Customers arriving per second within the window and shed.
+     */
+    public double getShedRate() {
+        long window = getWindowNanos();
+        return window == 0 ? 0.0 : shed.sum() * 1e9 / window;
+    }
+
+    /**
+     * The fraction of the customers arriving within the window who were
+     * shed, from 0 to 1.
+     */
+    public double getShedFraction() {
+        long arrived = arrivals.sum();
+        return arrived == 0 ? 0.0 : (double) shed.sum() / arrived;
+    }
+
+    /**
+     * The visits, from arriving to leaving, of the customers arriving
+     * within the window and served.
+     */
+    public LatencyHistogram getVisit() {
+        return visit;
+    }
+
+    public String toString() {
+        return String.format("window %.1f s after %.1f s warm-up: %.2f arrivals/s; %.2f customers/s; "
+                        + "%.2f shed/s; visit %s",
+                getWindowNanos() / 1e9, warmupNanos / 1e9, getArrivalRate(), getThroughput(), getShedRate(), visit);
+    }
+}
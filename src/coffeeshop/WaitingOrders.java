@@ -0,0 +1,92 @@
+package coffeeshop;
+
+import java.util.Arrays;
+
+/**
+ * The orders waiting for a cook, in the order they were placed, each with
+ * the time it was placed at.  They are kept in a ring buffer, so the
+ * oldest order is taken in constant time, and any other one by shifting
+ * the orders placed after it.  Not thread-safe: OrderQueue guards it with
+ * its lock.
+ */
+public class WaitingOrders {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Customer[] customers = new Customer[INITIAL_CAPACITY];
+    private long[] placedNanos = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    private int slot(int index) {
+        return (head + index) & (customers.length - 1);
+    }
+
+    void add(Customer customer, long nowNanos) {
+        if (size == customers.length) {
+            Customer[] grownCustomers = new Customer[size * 2];
+            long[] grownPlacedNanos = new long[size * 2];
+            for (int index = 0; index < size; index++) {
+                grownCustomers[index] = customers[slot(index)];
+                grownPlacedNanos[index] = placedNanos[slot(index)];
+            }
+            customers = grownCustomers;
+            placedNanos = grownPlacedNanos;
+            head = 0;
+        }
+        customers[slot(size)] = customer;
+        placedNanos[slot(size)] = nowNanos;
+        size++;
+    }
+
+    /**
+     * Removes the order at the given index and returns its customer.
+     */
+    Customer remove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Customer customer = customers[slot(index)];
+        if (index == 0) {
+            customers[head] = null;
+            head = slot(1);
+        } else {
+            for (int next = index + 1; next < size; next++) {
+                customers[slot(next - 1)] = customers[slot(next)];
+                placedNanos[slot(next - 1)] = placedNanos[slot(next)];
+            }
+            customers[slot(size - 1)] = null;
+        }
+        size--;
+        return customer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The customer of the index-th oldest waiting order.
+     */
+    public Customer getCustomer(int index) {
+        return customers[slot(index)];
+    }
+
+    /**
+     * When the index-th oldest waiting order was placed, in nanoseconds.
+     */
+    public long getPlacedNanos(int index) {
+        return placedNanos[slot(index)];
+    }
+
+    public String toString() {
+        Customer[] waiting = new Customer[size];
+        for (int index = 0; index < size; index++) {
+            waiting[index] = getCustomer(index);
+        }
+        return Arrays.toString(waiting);
+    }
+}
@@ -0,0 +1,16 @@
+package coffeeshop;
+
+/**
+ * WorkMode selects how cooks share the work.  ORDER, how the simulation has
+ * always run, has a cook take a whole order, send all its items to their
+ * machines and wait for the slowest one: at most one order per cook is
+ * being cooked, and a cook waiting for its items does nothing else.  ITEM
+ * has cooks take single food items from a pool shared by every placed
+ * order, only when the item's machine has a free slot, and tend each item
+ * while it cooks; an order is complete once all its items are, whichever
+ * cooks tended them.
+ */
+public enum WorkMode {
+    ORDER,
+    ITEM
+}
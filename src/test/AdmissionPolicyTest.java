@@ -0,0 +1,122 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionPolicyTest {
+
+    /**
+     * 5 customers per second arrive at a shop serving about 4 random orders
+     * per second.
+     */
+    private static DiscreteEventSimulation overloaded(AdmissionPolicy policy, EventSink... sinks) {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(20000, 8, 20, 2, true,
+                sinks.length == 0 ? new EventSink[]{new MemoryEventSink()} : sinks);
+        simulation.setSeed(1);
+        simulation.setArrivalSchedule(ArrivalSchedule.poisson(5));
+        simulation.setWarmupMillis(60_000);
+        simulation.setAdmissionPolicy(policy);
+        return simulation;
+    }
+
+    /**
+     * The last event of every customer, by name.
+     */
+    private static Map<String, SimulationEvent.EventType> lastEvents(List<SimulationEvent> events) {
+        Map<String, SimulationEvent.EventType> lastEvents = new HashMap<String, SimulationEvent.EventType>();
+        for (SimulationEvent event : events) {
+            if (event.getCustomer() != null) {
+                lastEvents.put(event.getCustomer().toString(), event.getEvent());
+            }
+        }
+        return lastEvents;
+    }
+
+    @Test
+    public void unlimitedQueuesForever() {
+        DiscreteEventSimulation simulation = overloaded(AdmissionPolicy.UNLIMITED);
+        CoffeeShopReport report = CoffeeShopReport.of(simulation.run());
+        assertEquals(1.0, report.getServedRate());
+        assertEquals(0, report.getCustomersShed());
+        // The line keeps growing: most customers wait for minutes
+        assertTrue(simulation.getSteadyState().getVisit().getPercentileMillis(50) > 60_000);
+    }
+
+    @Test
+    public void maxLineShedsTheExcess() {
+        DiscreteEventSimulation simulation = overloaded(AdmissionPolicy.maxLine(20));
+        CoffeeShopReport report = CoffeeShopReport.of(simulation.run());
+
+        assertEquals(20000, report.getCustomersArrived());
+        assertEquals(report.getCustomersArrived(), report.getCustomersServed() + report.getCustomersShed());
+        assertEquals(report.getCustomersShed(), report.getCustomersTurnedAway());
+        assertEquals(report.getCustomersServed(), report.getTotalOrdersCompleted());
+        assertEquals(report.getCustomersShed(), simulation.getSeating().getCustomersShed());
+        // About a fifth of the customers are shed, the shop still serving at capacity
+        assertEquals(0.2, report.getShedRate(), 0.02);
+        SteadyStateStats steadyState = simulation.getSteadyState();
+        assertEquals(4.0, steadyState.getThroughput(), 0.2);
+        assertEquals(1.0, steadyState.getShedRate(), 0.2);
+        // Those served wait at most for 20 customers ahead of them
+        assertTrue(steadyState.getVisit().getPercentileMillis(99) < 30_000);
+    }
+
+    @Test
+    public void balkingAndReneging() {
+        DiscreteEventSimulation balking = overloaded(AdmissionPolicy.balking(5000));
+        CoffeeShopReport balkingReport = CoffeeShopReport.of(balking.run());
+        assertEquals(balkingReport.getCustomersShed(), balkingReport.getCustomersBalked());
+        assertEquals(0.2, balkingReport.getShedRate(), 0.02);
+
+        MemoryEventSink memory = new MemoryEventSink();
+        CompactEventStore compact = new CompactEventStore();
+        DiscreteEventSimulation reneging = overloaded(AdmissionPolicy.reneging(10_000), memory, compact);
+        List<SimulationEvent> events = reneging.run();
+        CoffeeShopReport report = CoffeeShopReport.of(events);
+        assertEquals(report.getCustomersShed(), report.getCustomersReneged());
+        assertEquals(0.2, report.getShedRate(), 0.02);
+        // Customers give up after 10 s in line, so nobody served waited much longer
+        assertTrue(reneging.getLatencies().getWaitForTable().getMaxMillis() <= 10_000);
+
+        // Every customer either leaves after being served or is shed, and never both
+        Map<String, SimulationEvent.EventType> lastEvents = lastEvents(events);
+        assertEquals(20000, lastEvents.size());
+        long reneged = lastEvents.values().stream()
+                .filter(type -> type == SimulationEvent.EventType.CustomerReneged).count();
+        assertEquals(report.getCustomersReneged(), reneged);
+        assertEquals(report.getCustomersServed(), lastEvents.size() - reneged);
+
+        // The new event types are stored like the others
+        assertEquals(events.toString(), compact.getEvents().toString());
+    }
+
+    @Test
+    public void threadedShopTurnsAwayAndReneges() {
+        Menu menu = Menu.parse(List.of("tea, 300, Kettle, 1"));
+        LiveMetrics metrics = new LiveMetrics();
+        CoffeeShop shop = new CoffeeShop(10, 2, 2, 2, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setMenu(menu);
+        shop.setAdmissionPolicy(AdmissionPolicy.maxLine(0));
+        shop.addListener(metrics);
+        CoffeeShopReport report = CoffeeShopReport.of(shop.run());
+        // Two customers take the tables, and nobody may wait for them
+        assertEquals(2, report.getCustomersServed());
+        assertEquals(8, report.getCustomersTurnedAway());
+        assertEquals(8, metrics.getCustomersShed());
+        assertEquals(0, metrics.getCustomersWaitingForTable());
+
+        shop = new CoffeeShop(3, 1, 1, 1, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setMenu(menu);
+        shop.setAdmissionPolicy(AdmissionPolicy.reneging(100));
+        report = CoffeeShopReport.of(shop.run());
+        assertEquals(1, report.getCustomersServed());
+        assertEquals(2, report.getCustomersReneged());
+        assertEquals(0, shop.getSeating().getLineLength());
+    }
+}
@@ -0,0 +1,118 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrivalScheduleTest {
+
+    @Test
+    public void constantAndPoissonRates() {
+        assertArrayEquals(new long[]{0, 250_000_000, 500_000_000, 750_000_000},
+                ArrivalSchedule.constant(4).arrivals(4, new SplittableRandom(1)));
+
+        long[] arrivals = ArrivalSchedule.poisson(4).arrivals(20000, new SplittableRandom(1));
+        assertArrayEquals(arrivals, ArrivalSchedule.poisson(4).arrivals(20000, new SplittableRandom(1)));
+        // 20000 arrivals at 4 per second take about 5000 s
+        assertEquals(5000.0, arrivals[arrivals.length - 1] / 1e9, 150.0);
+        for (int index = 1; index < arrivals.length; index++) {
+            assertTrue(arrivals[index] >= arrivals[index - 1]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ArrivalSchedule.poisson(0));
+    }
+
+    @Test
+    public void diurnalCurve() {
+        // 1 customer per second at the start of every 100 s period, 9 half way through
+        long[] arrivals = ArrivalSchedule.diurnal(new double[]{1, 9}, 100)
+                .arrivals(50000, new SplittableRandom(3));
+        int quiet = 0;
+        int busy = 0;
+        for (long arrival : arrivals) {
+            double phase = (arrival / 1e9) % 100;
+            if (phase < 10 || phase >= 90) {
+                quiet++;
+            } else if (phase >= 40 && phase < 60) {
+                busy++;
+            }
+        }
+        // Mean rates of about 1.8 and 8.6 customers per second over those 20 s
+        assertEquals(8.6 / 1.8, (double) busy / quiet, 0.5);
+    }
+
+    @Test
+    public void loadTrace(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("arrivals.trace");
+        Files.write(file, List.of("# arrival time in ms", "1500", "0", "", "250.5"));
+        ArrivalSchedule trace = ArrivalSchedule.load(file);
+        assertArrayEquals(new long[]{0, 250_500_000, 1_500_000_000}, trace.arrivals(3, new SplittableRandom(1)));
+        assertThrows(IllegalArgumentException.class, () -> trace.arrivals(4, new SplittableRandom(1)));
+
+        Files.write(file, List.of("-5"));
+        assertThrows(IllegalArgumentException.class, () -> ArrivalSchedule.load(file));
+    }
+
+    @Test
+    public void steadyStateBelowCapacity() {
+        // 8 cooks and machines of capacity 2 serve about 4 random orders per second
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(20000, 8, 20, 2, true);
+        simulation.setSeed(1);
+        simulation.setArrivalSchedule(ArrivalSchedule.poisson(3));
+        simulation.setWarmupMillis(60_000);
+        CoffeeShopReport report = CoffeeShopReport.of(simulation.run());
+        assertEquals(20000, report.getTotalOrdersCompleted());
+
+        SteadyStateStats steadyState = simulation.getSteadyState();
+        assertEquals(3.0, steadyState.getArrivalRate(), 0.1);
+        // The shop keeps up: it serves customers as fast as they arrive, within seconds
+        assertEquals(steadyState.getArrivalRate(), steadyState.getThroughput(), 0.05);
+        assertTrue(steadyState.getVisit().getPercentileMillis(99) < 10_000);
+        assertTrue(steadyState.getVisit().getCount() < 20000);
+
+        // The same customers arriving at once wait for hours
+        DiscreteEventSimulation burst = new DiscreteEventSimulation(20000, 8, 20, 2, true);
+        burst.setSeed(1);
+        burst.run();
+        assertTrue(burst.getLatencies().getVisit().getPercentileMillis(50) > 100 * 10_000);
+    }
+
+    @Test
+    public void steadyStateAboveCapacity() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(20000, 8, 20, 2, true);
+        simulation.setSeed(1);
+        simulation.setArrivalSchedule(ArrivalSchedule.poisson(5));
+        simulation.setWarmupMillis(60_000);
+        simulation.run();
+
+        // Throughput tops out at the shop's capacity, whatever the arrival rate
+        SteadyStateStats steadyState = simulation.getSteadyState();
+        assertEquals(5.0, steadyState.getArrivalRate(), 0.15);
+        assertEquals(4.0, steadyState.getThroughput(), 0.2);
+    }
+
+    @Test
+    public void threadedShopOnSchedule() {
+        Menu menu = Menu.parse(List.of("tea, 20, Kettle, 1"));
+        CoffeeShop shop = new CoffeeShop(30, 4, 30, 4, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setMenu(menu);
+        shop.setArrivalSchedule(ArrivalSchedule.constant(20));
+        shop.setWarmupMillis(500);
+        CoffeeShopReport report = CoffeeShopReport.of(shop.run());
+
+        assertEquals(30, report.getTotalOrdersCompleted());
+        // The last customer arrives after 1.45 s
+        assertTrue(shop.getRunNanos() >= 1_450_000_000L);
+        SteadyStateStats steadyState = shop.getSteadyState();
+        assertEquals(20, steadyState.getVisit().getCount());
+        assertEquals(20.0, steadyState.getThroughput(), 4.0);
+        assertTrue(steadyState.getVisit().getPercentileMillis(50) < 200);
+    }
+}
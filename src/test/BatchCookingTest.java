@@ -0,0 +1,83 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchCookingTest {
+
+    /**
+     * The most items each machine ever had cooking at once.
+     */
+    private static Map<Machine, Integer> peakCooking(List<SimulationEvent> events) {
+        Map<Machine, Integer> cooking = new HashMap<Machine, Integer>();
+        Map<Machine, Integer> peak = new HashMap<Machine, Integer>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.MachineStartingFood) {
+                int count = cooking.merge(event.getMachine(), 1, Integer::sum);
+                peak.merge(event.getMachine(), count, Math::max);
+            } else if (event.getEvent() == SimulationEvent.EventType.MachineDoneFood) {
+                cooking.merge(event.getMachine(), -1, Integer::sum);
+            }
+        }
+        return peak;
+    }
+
+    @Test
+    public void threadedBatches() {
+        CoffeeShop shop = new CoffeeShop(6, 3, 6, 2, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setBatchCooking(100);
+        List<SimulationEvent> events = shop.run();
+
+        assertEquals(6, CoffeeShopReport.of(events).getTotalOrdersCompleted());
+        for (int peak : peakCooking(events).values()) {
+            assertTrue(peak <= 2);
+        }
+        // Every order has two fries, which fill the fryer's batches
+        Machine fryer = shop.getFryer();
+        assertEquals(12, fryer.getItemsCooked());
+        assertEquals(6, fryer.getBatchCount());
+        assertEquals(1.0, fryer.getBatchFillRatio(), 1e-9);
+        assertTrue(fryer.getItemsPerSecond() > 0);
+    }
+
+    @Test
+    public void windowClosesPartialBatches() {
+        // A single cook never has more than one burger waiting for the grill
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(10, 1, 10, 4, false, new EventSink[0]);
+        simulation.setBatchCooking(250);
+        simulation.run();
+        Machine grill = simulation.getMachines().get(0);
+        assertEquals(10, grill.getBatchCount());
+        assertEquals(0.25, grill.getBatchFillRatio(), 1e-9);
+        // Each order waits for the window, then for its slowest item
+        assertEquals(10, simulation.getLatencies().getPrepareOrder().getCount());
+        assertEquals(750.0, simulation.getLatencies().getPrepareOrder().getMeanMillis(), 1.0);
+    }
+
+    @Test
+    public void batchesKeepThroughput() {
+        double[] ordersPerSecond = new double[2];
+        for (int index = 0; index < 2; index++) {
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(5000, 8, 40, 4, true,
+                    new EventSink[0]);
+            simulation.setSeed(3);
+            if (index == 1) {
+                simulation.setBatchCooking(100);
+            }
+            simulation.run();
+            assertEquals(5000, simulation.getLatencies().getVisit().getCount());
+            for (Machine machine : simulation.getMachines()) {
+                assertEquals(index == 1, machine.getBatchCount() > 0);
+                assertTrue(machine.getBatchFillRatio() <= 1.0);
+            }
+            ordersPerSecond[index] = simulation.getOrdersPerSecond();
+        }
+        assertEquals(ordersPerSecond[0], ordersPerSecond[1], 0.02 * ordersPerSecond[0]);
+    }
+}
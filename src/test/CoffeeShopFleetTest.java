@@ -0,0 +1,50 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoffeeShopFleetTest {
+    static int numShops = 4;
+    static int numCustomers = 10;
+    static private CoffeeShopFleet fleet;
+    static private CoffeeShopReport fleetReport;
+
+    @BeforeAll
+    static void initialize() {
+        List<CoffeeShop> shops = new ArrayList<CoffeeShop>();
+        for (int index = 0; index < numShops; index++) {
+            shops.add(new CoffeeShop(numCustomers, 3, 5, 2, false, ExecutionMode.VIRTUAL,
+                    new MemoryEventSink()));
+        }
+        fleet = new CoffeeShopFleet(shops);
+        fleetReport = fleet.run();
+    }
+
+    @Test
+    public void everyShopServed() {
+        assertEquals(numShops, fleet.getShopReports().size());
+        for (CoffeeShopReport report : fleet.getShopReports()) {
+            assertEquals(numCustomers, report.getTotalOrdersCompleted());
+        }
+    }
+
+    @Test
+    public void fleetReportAddsUp() {
+        // Every customer orders a burger, two fries and a coffee
+        assertEquals(numShops * numCustomers, fleetReport.getTotalOrdersCompleted());
+        assertEquals(numShops * numCustomers, fleetReport.getFoodCount(FoodType.burger));
+        assertEquals(2 * numShops * numCustomers, fleetReport.getFoodCount(FoodType.fries));
+        assertEquals(numShops * numCustomers, fleetReport.getFoodCount(FoodType.coffee));
+        assertEquals(numShops * 3, fleetReport.getAverageCookingTimeByCook().size());
+
+        double percentages = fleetReport.getPercentageOrdersByCook().values().stream()
+                .mapToDouble(Double::doubleValue).sum();
+        assertEquals(100.0, percentages, 1e-9);
+    }
+}
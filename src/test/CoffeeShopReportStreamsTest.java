@@ -106,4 +106,27 @@ public class CoffeeShopReportStreamsTest {
 
         assertTrue(concerningCookingTimes.isEmpty());
     }
+
+    @Test
+    void testReportsFollowChangesToTheEvents() {
+        List<SimulationEvent> events = new ArrayList<>(simulationEventList);
+        long burgers = coffeeShopReportStreams.getNumBurgersCooked(events);
+
+        // Same size, one order with burgers fewer
+        Cook cook = new Cook("Cook X");
+        long removed = 0;
+        for (int index = 0; index < events.size(); index++) {
+            SimulationEvent event = events.get(index);
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder
+                    && event.getOrderFood().contains(FoodType.burger)) {
+                removed = event.getOrderFood().stream().filter(food -> food == FoodType.burger).count();
+                events.set(index, SimulationEvent.cookReceivedOrder(cook, List.of(FoodType.coffee),
+                        event.getOrderNumber()));
+                break;
+            }
+        }
+        assertEquals(simulationEventList.size(), events.size());
+        assertTrue(removed > 0);
+        assertEquals(burgers - removed, coffeeShopReportStreams.getNumBurgersCooked(events));
+    }
 }
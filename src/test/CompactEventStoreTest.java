@@ -0,0 +1,50 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactEventStoreTest {
+    static private final CompactEventStore compactEventStore = new CompactEventStore();
+    static private final MemoryEventSink memoryEventSink = new MemoryEventSink();
+
+    @BeforeAll
+    static void initialize() {
+        Customer.setRunningCounter(0);
+        new DiscreteEventSimulation(200, 5, 20, 2, true,
+                memoryEventSink, compactEventStore).run();
+    }
+
+    @Test
+    void viewMatchesLoggedEvents() {
+        List<SimulationEvent> logged = memoryEventSink.getEvents();
+        List<SimulationEvent> view = compactEventStore.getEvents();
+        assertEquals(logged.size(), view.size());
+
+        for (int i = 0; i < logged.size(); i++) {
+            SimulationEvent expected = logged.get(i);
+            SimulationEvent actual = view.get(i);
+            assertEquals(expected.getEvent(), actual.getEvent());
+            assertSame(expected.getCook(), actual.getCook());
+            assertSame(expected.getCustomer(), actual.getCustomer());
+            assertSame(expected.getMachine(), actual.getMachine());
+            assertSame(expected.getFood(), actual.getFood());
+            assertSame(expected.getOrderFood(), actual.getOrderFood());
+            assertEquals(expected.getOrderNumber(), actual.getOrderNumber());
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    void reportsWorkOnView() {
+        CoffeeShopReportStreams reports = new CoffeeShopReportStreams();
+        assertEquals(reports.getFoodCountByType(memoryEventSink.getEvents()),
+                reports.getFoodCountByType(compactEventStore.getEvents()));
+        assertEquals(reports.getOrdersNumByCook(memoryEventSink.getEvents()),
+                reports.getOrdersNumByCook(compactEventStore.getEvents()));
+    }
+}
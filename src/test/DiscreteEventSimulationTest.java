@@ -0,0 +1,116 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiscreteEventSimulationTest {
+    static int numCustomers = 1000;
+    static int numCooks = 20;
+    static int numTables = 50;
+    static int machineCapacity = 4;
+    static boolean randomOrders = true;
+    static private List<SimulationEvent> events;
+
+    @BeforeAll
+    static void initialize() {
+        Customer.setRunningCounter(0);
+        if (events == null)
+            events = DiscreteEventSimulation.runSimulation(
+                    numCustomers,
+                    numCooks,
+                    numTables,
+                    machineCapacity,
+                    randomOrders
+            );
+    }
+
+    @Test
+    public void allCustomersServed() {
+        long served = events.stream()
+                .filter(e -> e.getEvent() == SimulationEvent.EventType.CustomerLeavingCoffeeShop)
+                .count();
+        assertEquals(numCustomers, served);
+        assertEquals(SimulationEvent.EventType.SimulationEnded, events.get(events.size() - 1).getEvent());
+    }
+
+    @Test
+    public void restaurantCapacityCheck() {
+        int currNumCustomers = 0;
+        for (SimulationEvent e : events) {
+            if (e.getEvent() == SimulationEvent.EventType.CustomerEnteredCoffeeShop) {
+                currNumCustomers++;
+            }
+            if (e.getEvent() == SimulationEvent.EventType.CustomerLeavingCoffeeShop) {
+                currNumCustomers--;
+            }
+            assertFalse(currNumCustomers > numTables);
+        }
+    }
+
+    @Test
+    public void machineCapacityCheck() {
+        Map<Machine, Integer> cooking = new HashMap<>();
+        for (SimulationEvent e : events) {
+            if (e.getEvent() == SimulationEvent.EventType.MachineStartingFood) {
+                cooking.merge(e.getMachine(), 1, Integer::sum);
+            } else if (e.getEvent() == SimulationEvent.EventType.MachineDoneFood) {
+                cooking.merge(e.getMachine(), -1, Integer::sum);
+            }
+            assertTrue(cooking.getOrDefault(e.getMachine(), 0) <= machineCapacity);
+            assertTrue(cooking.getOrDefault(e.getMachine(), 0) >= 0);
+        }
+    }
+
+    @Test
+    public void cookCompletesBeforeCustomerReceives() {
+        boolean[] cookCompleted = new boolean[numCustomers];
+        for (SimulationEvent e : events) {
+            if (e.getEvent() == SimulationEvent.EventType.CookCompletedOrder) {
+                cookCompleted[e.getOrderNumber()] = true;
+            }
+            if (e.getEvent() == SimulationEvent.EventType.CustomerReceivedOrder) {
+                assertTrue(cookCompleted[e.getOrderNumber()]);
+            }
+        }
+    }
+
+    @Test
+    public void virtualClockFollowsCookTimes() {
+        // One cook, machines of capacity 1: the burger, the first fries and
+        // the coffee cook in parallel, the second fries waits for the fryer.
+        Customer.setRunningCounter(0);
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(1, 1, 1, 1, false);
+        simulation.run();
+
+        long expected = (2L * FoodType.fries.cookTimeMS) * 1_000_000L;
+        assertEquals(expected, simulation.getClockNanos());
+    }
+
+    @Test
+    public void averageCookingTimeInVirtualTime() {
+        Customer.setRunningCounter(0);
+        List<SimulationEvent> events = DiscreteEventSimulation.runSimulation(2, 1, 2, 1, false);
+
+        // The cook prepares both orders one after the other, 700 ms each
+        Map<Cook, Double> averages = new CoffeeShopReportStreams().getAverageCookingTimeByCook(events);
+        assertEquals(1, averages.size());
+        assertEquals(2.0 * FoodType.fries.cookTimeMS, averages.values().iterator().next(), 1e-9);
+    }
+
+    @Test
+    public void reportCoversIdleCooks() {
+        // More cooks than the report's initial capacity, most of them idle
+        Customer.setRunningCounter(0);
+        List<SimulationEvent> events = DiscreteEventSimulation.runSimulation(2, 12, 2, 1, false);
+
+        Map<Cook, Double> averages = new CoffeeShopReportStreams().getAverageCookingTimeByCook(events);
+        assertEquals(12, averages.size());
+    }
+}
@@ -0,0 +1,166 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+
+    private static List<SimulationEvent> cookEvents(int count) {
+        List<SimulationEvent> events = new ArrayList<SimulationEvent>();
+        for (int index = 0; index < count; index++) {
+            events.add(SimulationEvent.cookStarting(new Cook("Cook " + index)));
+        }
+        return events;
+    }
+
+    /**
+     * Keeps the events, taking its time over every batch.
+     */
+    private static class SlowSink extends MemoryEventSink {
+        int batches;
+
+        public void write(List<SimulationEvent> batch) {
+            batches++;
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(batch);
+        }
+    }
+
+    @Test
+    public void deliversEverythingInOrderBeforeClose() {
+        // More events than the queue holds, so the slow sink holds up add()
+        List<SimulationEvent> events = cookEvents(200_000);
+        SlowSink slow = new SlowSink();
+        MemoryEventSink memory = new MemoryEventSink();
+        EventLog log = new EventLog(slow, memory);
+        for (SimulationEvent event : events) {
+            log.add(event);
+        }
+        log.close();
+
+        assertEquals(events, slow.getEvents());
+        assertEquals(events, memory.getEvents());
+        assertEquals(events, log.getEvents());
+        // Events are written in batches
+        assertTrue(slow.batches < events.size() / 100);
+
+        log.add(events.get(0));
+        assertEquals(events.size(), memory.getEvents().size());
+    }
+
+    @Test
+    public void actorsWaitForRoomWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch released = new CountDownLatch(1);
+        MemoryEventSink memory = new MemoryEventSink();
+        EventLog log = new EventLog(batch -> {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, memory);
+        List<SimulationEvent> events = cookEvents(200_000);
+        Thread actor = new Thread(() -> events.forEach(log::add));
+        actor.start();
+        // The sink holds up the consumer, so the actor parks once the queue is full
+        while (actor.getState() != Thread.State.WAITING) {
+            assertTrue(actor.isAlive());
+            Thread.sleep(1);
+        }
+        released.countDown();
+        actor.join();
+        log.close();
+        assertEquals(events, memory.getEvents());
+    }
+
+    @Test
+    public void keepsTheOrderOfEachActor() throws InterruptedException {
+        MemoryEventSink memory = new MemoryEventSink();
+        EventLog log = new EventLog(memory);
+        Thread[] actors = new Thread[4];
+        List<List<SimulationEvent>> logged = new ArrayList<List<SimulationEvent>>();
+        for (int index = 0; index < actors.length; index++) {
+            List<SimulationEvent> events = cookEvents(10_000);
+            logged.add(events);
+            actors[index] = new Thread(() -> events.forEach(log::add));
+            actors[index].start();
+        }
+        for (Thread actor : actors) {
+            actor.join();
+        }
+        log.close();
+
+        assertEquals(40_000, memory.getEvents().size());
+        for (List<SimulationEvent> events : logged) {
+            Set<SimulationEvent> actorEvents = new HashSet<SimulationEvent>(events);
+            List<SimulationEvent> written = new ArrayList<SimulationEvent>(memory.getEvents());
+            written.removeIf(event -> !actorEvents.contains(event));
+            assertEquals(events, written);
+        }
+    }
+
+    @Test
+    public void closeThrowsSinkFailure() {
+        EventSink failing = batch -> {
+            throw new IOException("disk full");
+        };
+        MemoryEventSink memory = new MemoryEventSink();
+        EventLog log = new EventLog(failing, memory);
+        List<SimulationEvent> events = cookEvents(5000);
+        events.forEach(log::add);
+
+        UncheckedIOException thrown = assertThrows(UncheckedIOException.class, log::close);
+        assertEquals("disk full", thrown.getCause().getMessage());
+        // The other sinks still get every event
+        assertEquals(events, memory.getEvents());
+
+        EventLog closing = new EventLog(new EventSink() {
+            public void write(List<SimulationEvent> batch) {
+            }
+
+            public void close() {
+                throw new IllegalStateException("already closed");
+            }
+        });
+        assertThrows(IllegalStateException.class, closing::close);
+    }
+
+    @Test
+    public void consoleAndFileSinks(@TempDir Path directory) throws IOException {
+        List<SimulationEvent> events = cookEvents(3);
+        List<String> lines = new ArrayList<String>();
+        for (SimulationEvent event : events) {
+            lines.add(event.toString());
+        }
+
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        Path file = directory.resolve("events.txt");
+        EventLog log = new EventLog(new ConsoleEventSink(new PrintStream(console, true, StandardCharsets.UTF_8)),
+                new FileEventSink(file));
+        events.forEach(log::add);
+        log.close();
+
+        assertEquals(lines, console.toString(StandardCharsets.UTF_8).lines().toList());
+        assertEquals(lines, Files.readAllLines(file));
+    }
+}
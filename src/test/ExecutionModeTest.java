@@ -0,0 +1,59 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionModeTest {
+
+    @Test
+    public void threadsOfEachMode() {
+        assertTrue(ExecutionMode.VIRTUAL.newThread(() -> {
+        }).isVirtual());
+        assertFalse(ExecutionMode.PLATFORM.newThread(() -> {
+        }).isVirtual());
+    }
+
+    @Test
+    public void virtualRunSimulation() {
+        // Event types logged by the actors, and those logged from a platform thread
+        Set<SimulationEvent.EventType> virtual = ConcurrentHashMap.newKeySet();
+        Set<SimulationEvent.EventType> platform = ConcurrentHashMap.newKeySet();
+        SimulationEventListener listener = event ->
+                (Thread.currentThread().isVirtual() ? virtual : platform).add(event.getEvent());
+        Simulation.addListener(listener);
+        List<SimulationEvent> events;
+        try {
+            Customer.setRunningCounter(0);
+            events = Simulation.runSimulation(50, 4, 10, 2, true, ExecutionMode.VIRTUAL,
+                    new MemoryEventSink());
+        } finally {
+            Simulation.removeListener(listener);
+        }
+
+        CoffeeShopReport report = CoffeeShopReport.of(events);
+        assertEquals(50, report.getTotalOrdersCompleted());
+        assertEquals(4, report.getOrdersNumByCook().size());
+
+        // Customers, cooks and the machines' workers all run on virtual threads
+        assertTrue(virtual.containsAll(EnumSet.of(
+                SimulationEvent.EventType.CustomerEnteredCoffeeShop,
+                SimulationEvent.EventType.CustomerLeavingCoffeeShop,
+                SimulationEvent.EventType.CookReceivedOrder,
+                SimulationEvent.EventType.CookCompletedOrder,
+                SimulationEvent.EventType.MachineStartingFood,
+                SimulationEvent.EventType.MachineDoneFood)));
+        // Only the simulation itself, starting and stopping them, doesn't
+        assertEquals(EnumSet.of(
+                SimulationEvent.EventType.SimulationStarting,
+                SimulationEvent.EventType.MachineStarting,
+                SimulationEvent.EventType.MachineEnding,
+                SimulationEvent.EventType.SimulationEnded), platform);
+    }
+}
@@ -0,0 +1,77 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1_000_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+        assertEquals(1_000_000, histogram.getCount());
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+        assertEquals(500_000_500.0, histogram.getMeanNanos(), 1e-3);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double expected = percentile * 10_000_000;
+            assertEquals(expected, histogram.getPercentileNanos(percentile), expected * 0.035);
+        }
+        assertEquals(1_000_000_000L, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 0; nanos < 32; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(15, histogram.getPercentileNanos(50));
+        assertEquals(0, new LatencyHistogram().getPercentileNanos(99));
+    }
+
+    @Test
+    public void concurrentRecordsAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int index = 0; index < 8; index++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (long nanos = 0; nanos < 100_000; nanos++) {
+                    histogram.record(nanos);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(800_000, histogram.getCount());
+        assertEquals(99_999, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void stagesOfDiscreteEventSimulation() {
+        Customer.setRunningCounter(0);
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(500, 5, 20, 2, true);
+        simulation.run();
+
+        StageLatencies latencies = simulation.getLatencies();
+        assertEquals(500, latencies.getVisit().getCount());
+        assertEquals(500, latencies.getPrepareOrder().getCount());
+        assertEquals(simulation.getClockNanos(), latencies.getVisit().getMaxNanos());
+        assertEquals(0, latencies.getPlaceOrder().getMaxNanos());
+        assertTrue(latencies.getWaitForTable().getPercentileNanos(99) > 0);
+
+        for (Machine machine : simulation.getMachines()) {
+            long cookTime = machine.getMachineFoodType().cookTimeMS * 1_000_000L;
+            assertEquals(cookTime, machine.getCookTime().getPercentileNanos(50));
+            assertEquals(cookTime, machine.getCookTime().getMaxNanos());
+            assertEquals(machine.getCookTime().getCount(), machine.getQueueWait().getCount());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveMetricsTest {
+    static int numCustomers = 300;
+    static private final LiveMetrics metrics = new LiveMetrics();
+    static private final List<Long> ordersInFlight = new ArrayList<Long>();
+    static private List<SimulationEvent> events;
+
+    @BeforeAll
+    static void initialize() {
+        Customer.setRunningCounter(0);
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(numCustomers, 5, 20, 2, true);
+        simulation.addListener(metrics);
+        simulation.addListener(event -> ordersInFlight.add(metrics.getOrdersInFlight()));
+        events = simulation.run();
+    }
+
+    @Test
+    public void everyEventSeen() {
+        assertEquals(events.size(), metrics.getEventCount());
+    }
+
+    @Test
+    public void matchesReport() {
+        CoffeeShopReport report = CoffeeShopReport.of(events);
+        assertEquals(report.getTotalOrdersCompleted(), metrics.getOrdersCompleted());
+        assertEquals(report.getOrdersNumByCook(), metrics.getOrdersNumByCook());
+        for (Food food : new Food[]{FoodType.burger, FoodType.fries, FoodType.coffee}) {
+            assertEquals(report.getFoodCount(food), metrics.getFoodOrdered(food));
+            assertEquals(report.getFoodCount(food), metrics.getFoodCooked(food));
+        }
+    }
+
+    @Test
+    public void queuesDrained() {
+        assertEquals(numCustomers, metrics.getCustomersServed());
+        assertEquals(0, metrics.getCustomersWaitingForTable());
+        assertEquals(0, metrics.getCustomersSeated());
+        assertEquals(0, metrics.getOrdersWaiting());
+        assertEquals(0, metrics.getOrdersInFlight());
+        for (Food food : new Food[]{FoodType.burger, FoodType.fries, FoodType.coffee}) {
+            assertEquals(0, metrics.getFoodCooking(food));
+            assertEquals(0, metrics.getFoodWaitingForMachine(food));
+        }
+    }
+
+    @Test
+    public void readableMidRun() {
+        long maxInFlight = 0;
+        for (long inFlight : ordersInFlight) {
+            assertTrue(inFlight >= 0 && inFlight <= 20);
+            maxInFlight = Math.max(maxInFlight, inFlight);
+        }
+        assertTrue(maxInFlight > 0);
+    }
+
+    @Test
+    public void stopThreadedRunEarly() {
+        // 200 customers arriving over 4 s, for 2 tables and a kettle making a tea every 20 ms
+        CoffeeShop shop = new CoffeeShop(200, 2, 2, 1, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setMenu(Menu.parse(List.of("tea, 20, Kettle, 1")));
+        shop.setArrivalSchedule(ArrivalSchedule.constant(50));
+        LiveMetrics live = new LiveMetrics();
+        shop.addListener(live);
+        shop.addListener(event -> {
+            if (live.getOrdersCompleted() >= 10) {
+                shop.stop();
+            }
+        });
+        CoffeeShopReport report = CoffeeShopReport.of(assertTimeoutPreemptively(Duration.ofSeconds(30), shop::run));
+
+        assertTrue(shop.isStopped());
+        assertTrue(shop.getRunNanos() < 3_000_000_000L);
+        // Those seated when the shop stopped are still served, those in line turned away
+        assertTrue(report.getCustomersServed() >= 10 && report.getCustomersServed() < 200);
+        assertEquals(report.getCustomersArrived(), report.getCustomersServed() + report.getCustomersTurnedAway());
+        assertEquals(report.getCustomersServed(), live.getCustomersServed());
+        assertEquals(0, live.getCustomersWaitingForTable());
+        assertEquals(0, live.getCustomersSeated());
+        assertEquals(2, shop.getSeating().getFreeTables());
+    }
+
+    @Test
+    public void stopDiscreteEventRunEarly() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(20000, 4, 10, 2, true);
+        LiveMetrics live = new LiveMetrics();
+        simulation.addListener(live);
+        simulation.addListener(event -> {
+            if (live.getOrdersCompleted() == 100) {
+                simulation.stop();
+            }
+        });
+        CoffeeShopReport report = CoffeeShopReport.of(simulation.run());
+
+        // Every customer arrived at once: the 10 seated are served, the others sent away
+        assertEquals(20000, report.getCustomersArrived());
+        assertTrue(report.getCustomersServed() >= 100 && report.getCustomersServed() <= 110);
+        assertEquals(20000 - report.getCustomersServed(), report.getCustomersTurnedAway());
+        assertEquals(0, live.getCustomersWaitingForTable());
+        assertEquals(0, live.getCustomersSeated());
+    }
+}
@@ -0,0 +1,137 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MachineTest {
+
+    @Test
+    public void machineWithoutShopOrLog() throws InterruptedException {
+        EventLog log = Simulation.eventLog;
+        Simulation.eventLog = null;
+        List<SimulationEvent> heard = new ArrayList<SimulationEvent>();
+        SimulationEventListener listener = heard::add;
+        Simulation.addListener(listener);
+        try {
+            Machine machine = new Machine("Kettle", new Food("tea", 10), 1);
+            CompletableFuture<Food> tea = machine.makeFood(new Cook("Cook 0"), 0);
+            assertEquals("tea", tea.join().toString());
+            machine.shutdown();
+        } finally {
+            Simulation.removeListener(listener);
+            Simulation.eventLog = log;
+        }
+        // The events are only dropped once the listeners have heard them
+        assertEquals(3, heard.size());
+    }
+
+    @Test
+    public void workersBoundedByCapacity() throws InterruptedException {
+        List<Thread> workers = new CopyOnWriteArrayList<Thread>();
+        ThreadFactory factory = task -> {
+            Thread worker = ExecutionMode.VIRTUAL.newThread(task);
+            workers.add(worker);
+            return worker;
+        };
+        Machine machine = new Machine("Kettle", new Food("tea", 5), 2, factory);
+        Cook cook = new Cook("Cook 0");
+        List<CompletableFuture<Food>> teas = new ArrayList<CompletableFuture<Food>>();
+        for (int index = 0; index < 20; index++) {
+            teas.add(machine.makeFood(cook, index));
+        }
+        // makeFood() doesn't wait for a free slot
+        assertTrue(machine.getItemsInFlight() > 2);
+        CompletableFuture.allOf(teas.toArray(new CompletableFuture<?>[0])).join();
+        machine.shutdown();
+
+        assertEquals(20, machine.getItemsCooked());
+        assertEquals(0, machine.getItemsInFlight());
+        assertEquals(20, machine.getQueueWait().getCount());
+        // Two workers, reused for every item
+        assertEquals(2, workers.size());
+        for (Thread worker : workers) {
+            assertTrue(worker.isVirtual());
+            worker.join(5000);
+            assertFalse(worker.isAlive());
+        }
+    }
+
+    @Test
+    public void failedItemFailsItsOrder() {
+        for (WorkMode mode : WorkMode.values()) {
+            CoffeeShop shop = new CoffeeShop(6, 2, 6, 2, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+            shop.setWorkMode(mode);
+            // The worker cooking the first item is interrupted: the item fails
+            AtomicBoolean failed = new AtomicBoolean();
+            shop.addListener(event -> {
+                if (event.getEvent() == SimulationEvent.EventType.MachineStartingFood
+                        && failed.compareAndSet(false, true)) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            List<SimulationEvent> events = assertTimeoutPreemptively(Duration.ofSeconds(30), shop::run);
+
+            // Its customer leaves without the order, the other cook serves the others
+            CoffeeShopReport report = CoffeeShopReport.of(events);
+            assertEquals(5, report.getTotalOrdersCompleted());
+            assertEquals(6, events.stream().filter(event ->
+                    event.getEvent() == SimulationEvent.EventType.CustomerLeavingCoffeeShop).count());
+            assertEquals(6, shop.getSeating().getFreeTables());
+        }
+    }
+
+    /**
+     * Runs a shop with a single cook, interrupting the worker cooking the
+     * first item, and checks that every customer leaves and no machine
+     * still counts a failed item; returns the orders that failed.
+     */
+    private static long runFailingOneCookShop(WorkMode mode, long batchWindowMillis) {
+        CoffeeShop shop = new CoffeeShop(6, 1, 6, 2, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setWorkMode(mode);
+        if (batchWindowMillis >= 0) {
+            shop.setBatchCooking(batchWindowMillis);
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        shop.addListener(event -> {
+            if (event.getEvent() == SimulationEvent.EventType.MachineStartingFood
+                    && failed.compareAndSet(false, true)) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<SimulationEvent> events = assertTimeoutPreemptively(Duration.ofSeconds(30), shop::run);
+
+        long failedOrders = events.stream().filter(event ->
+                event.getEvent() == SimulationEvent.EventType.CookFailedOrder).count();
+        assertEquals(6, CoffeeShopReport.of(events).getTotalOrdersCompleted() + failedOrders);
+        assertEquals(6, events.stream().filter(event ->
+                event.getEvent() == SimulationEvent.EventType.CustomerLeavingCoffeeShop).count());
+        for (Machine machine : shop.getMachines()) {
+            assertEquals(0, machine.getItemsInFlight());
+            assertEquals(0, machine.getItemsCooking());
+            assertTrue(machine.getFoodList().isEmpty());
+        }
+        assertFalse(shop.getCooks().get(0).isBusy());
+        return failedOrders;
+    }
+
+    @Test
+    public void oneCookCarriesOnAfterAFailedItem() {
+        // The cook fails the order of the item, and goes on with the others
+        for (WorkMode mode : WorkMode.values()) {
+            assertEquals(1, runFailingOneCookShop(mode, -1));
+        }
+        // A batch fails every item in it; the next batch cooks the rest
+        assertTrue(runFailingOneCookShop(WorkMode.ORDER, 50) >= 1);
+    }
+}
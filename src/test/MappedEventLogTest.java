@@ -0,0 +1,98 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedEventLogTest {
+    // Enough customers for the log to span several mapped windows
+    static int numCustomers = 50000;
+    static private final MemoryEventSink memoryEventSink = new MemoryEventSink();
+    static private Path logFile;
+
+    @TempDir
+    static Path tempDir;
+
+    @BeforeAll
+    static void initialize() throws IOException {
+        Customer.setRunningCounter(0);
+        logFile = tempDir.resolve("events.bin");
+        new DiscreteEventSimulation(numCustomers, 10, 50, 3, true,
+                memoryEventSink, new MappedEventSink(logFile)).run();
+    }
+
+    @Test
+    public void replaysLoggedEvents() throws IOException {
+        List<SimulationEvent> logged = memoryEventSink.getEvents();
+        try (MappedEventLog log = new MappedEventLog(logFile)) {
+            Iterator<SimulationEvent> replayed = log.iterator();
+            for (SimulationEvent expected : logged) {
+                assertTrue(replayed.hasNext());
+                SimulationEvent actual = replayed.next();
+                assertEquals(expected.getEvent(), actual.getEvent());
+                assertEquals(expected.getOrderNumber(), actual.getOrderNumber());
+                assertEquals(String.valueOf(expected.getOrderFood()), String.valueOf(actual.getOrderFood()));
+                assertEquals(expected.toString(), actual.toString());
+            }
+            assertFalse(replayed.hasNext());
+        }
+    }
+
+    @Test
+    public void fileIsCompact() throws IOException {
+        try (MappedEventLog log = new MappedEventLog(logFile)) {
+            assertTrue(log.size() < 16L * memoryEventSink.getEvents().size());
+            // The file is only padded to the end of the last window
+            assertTrue(Files.size(logFile) - log.size() < 8 << 20);
+        }
+    }
+
+    @Test
+    public void reportsMatch() throws IOException {
+        CoffeeShopReportStreams reports = new CoffeeShopReportStreams();
+        CoffeeShopReport expected = reports.report(memoryEventSink.getEvents());
+        try (MappedEventLog log = new MappedEventLog(logFile)) {
+            CoffeeShopReport actual = reports.report(log);
+            assertEquals(expected.getFoodCountByType(), actual.getFoodCountByType());
+            assertEquals(expected.getTotalOrdersCompleted(), actual.getTotalOrdersCompleted());
+            assertEquals(byName(expected.getOrdersNumByCook()), byName(actual.getOrdersNumByCook()));
+        }
+    }
+
+    @Test
+    public void replayedFoodsAreTheFoodTypes() throws IOException {
+        CoffeeShopReport expected = CoffeeShopReport.of(memoryEventSink.getEvents());
+        try (MappedEventLog log = new MappedEventLog(logFile)) {
+            CoffeeShopReport actual = CoffeeShopReport.of(log);
+            assertTrue(expected.getFoodCount(FoodType.burger) > 0);
+            for (Food food : List.of(FoodType.burger, FoodType.fries, FoodType.coffee)) {
+                assertEquals(expected.getFoodCount(food), actual.getFoodCount(food));
+            }
+        }
+    }
+
+    // Replayed cooks are new objects, so compare them by name
+    static private Map<String, Long> byName(Map<Cook, Long> byCook) {
+        Map<String, Long> byName = new HashMap<String, Long>();
+        byCook.forEach((cook, count) -> byName.put(cook.toString(), count));
+        return byName;
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        Path text = tempDir.resolve("events.txt");
+        Files.writeString(text, "Starting simulation");
+        assertThrows(IOException.class, () -> new MappedEventLog(text));
+    }
+}
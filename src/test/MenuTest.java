@@ -0,0 +1,113 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MenuTest {
+
+    private static Menu longMenu(int numFoods) {
+        List<String> lines = new ArrayList<String>();
+        lines.add("# name, cookTimeMS, machine, quantity in the fixed order");
+        for (int index = 0; index < numFoods; index++) {
+            lines.add("food " + index + ", " + (50 + 10 * index) + ", Machine " + index + ", " + (index % 2));
+        }
+        return Menu.parse(lines);
+    }
+
+    @Test
+    public void loadDefaultMenu(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("default.menu");
+        Files.write(file, List.of(
+                "# name, cookTimeMS, machine, quantity in the fixed order",
+                "burger, 500, Grill, 1",
+                "",
+                "fries, 350, Fryer, 2",
+                "coffee,100,CoffeeMaker2000,1"));
+        Menu menu = Menu.load(file);
+        // The foods are the FoodType ones, so reports on them apply
+        assertEquals(Menu.DEFAULT.getFoods(), menu.getFoods());
+        assertEquals(OrderGenerator.FIXED_ORDER, menu.getFixedOrder());
+        assertEquals(Menu.DEFAULT.getEntries().toString(), menu.getEntries().toString());
+        assertEquals(2, menu.indexOf(FoodType.coffee));
+        assertEquals(-1, menu.indexOf(new Food("tea", 100)));
+    }
+
+    @Test
+    public void positionsAreThoseOfEachMenu() {
+        // Every load makes new foods; each menu only knows its own
+        Menu first = longMenu(3);
+        Menu second = longMenu(3);
+        for (int index = 0; index < 3; index++) {
+            assertEquals(index, first.indexOf(first.getFoods().get(index)));
+            assertEquals(index, second.indexOf(second.getFoods().get(index)));
+            assertEquals(-1, first.indexOf(second.getFoods().get(index)));
+        }
+    }
+
+    @Test
+    public void malformedMenus() {
+        assertThrows(IllegalArgumentException.class, () -> Menu.parse(List.of("# nothing")));
+        assertThrows(IllegalArgumentException.class, () -> Menu.parse(List.of("tea, 100, Kettle")));
+        assertThrows(IllegalArgumentException.class, () -> Menu.parse(List.of("tea, hot, Kettle, 1")));
+        assertThrows(IllegalArgumentException.class, () -> Menu.parse(List.of("tea, -1, Kettle, 1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> Menu.parse(List.of("tea, 100, Kettle, 1", "tea, 200, Pot, 1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> Menu.parse(List.of("tea, 100, Kettle, 1", "soup, 200, Kettle, 1")));
+    }
+
+    @Test
+    public void thirtyItemMenu() {
+        Menu menu = longMenu(30);
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(2000, 10, 20, 2, true);
+        simulation.setMenu(menu);
+        simulation.setSeed(9);
+        CoffeeShopReport report = CoffeeShopReport.of(simulation.run());
+
+        assertEquals(2000, report.getTotalOrdersCompleted());
+        List<Machine> machines = simulation.getMachines();
+        assertEquals(30, machines.size());
+        long items = 0;
+        for (int index = 0; index < 30; index++) {
+            Machine machine = machines.get(index);
+            assertEquals("Machine " + index, machine.getMachineName());
+            assertSame(menu.getFoods().get(index), machine.getMachineFoodType());
+            // Every machine cooked exactly the items of its food ordered
+            assertEquals(report.getFoodCount(machine.getMachineFoodType()), machine.getItemsCooked());
+            items += machine.getItemsCooked();
+        }
+        // 0 to 2 of each food, i.e. 30 items per order on average
+        assertEquals(30.0, items / 2000.0, 1.0);
+    }
+
+    @Test
+    public void threadedShopWithCustomMenu() {
+        Menu menu = Menu.parse(List.of("tea, 100, Kettle, 2", "toast, 150, Toaster, 1"));
+        CoffeeShop shop = new CoffeeShop(6, 2, 6, 2, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setMenu(menu);
+        CoffeeShopReport report = CoffeeShopReport.of(shop.run());
+
+        assertEquals(6, report.getTotalOrdersCompleted());
+        Food tea = menu.getFoods().get(0);
+        assertEquals(12, report.getFoodCount(tea));
+        assertEquals(12, shop.getMachine(tea).getItemsCooked());
+        assertNull(shop.getGrill());
+    }
+
+    @Test
+    public void longMenusGetSeededOrders() {
+        Menu menu = longMenu(30);
+        List<List<Food>> orders = new OrderGenerator(5).orders(1000, true, menu);
+        assertEquals(orders, new OrderGenerator(5).orders(1000, true, menu));
+        assertEquals(15, menu.getFixedOrder().size());
+    }
+}
@@ -0,0 +1,62 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderGeneratorTest {
+
+    @Test
+    public void sameSeedSameOrders() {
+        List<List<Food>> orders = new OrderGenerator(42).orders(100_000, true);
+        assertEquals(orders, new OrderGenerator(42).orders(100_000, true));
+        assertNotEquals(orders, new OrderGenerator(43).orders(100_000, true));
+        // A shorter run gets a prefix of the same workload
+        assertEquals(orders.subList(0, 1000), new OrderGenerator(42).orders(1000, true));
+    }
+
+    @Test
+    public void randomOrdersHaveUpToTwoOfEachFood() {
+        List<List<Food>> orders = new OrderGenerator(7).orders(27_000, true);
+        int[] burgers = new int[3];
+        for (List<Food> order : orders) {
+            for (Food food : new Food[]{FoodType.burger, FoodType.fries, FoodType.coffee}) {
+                int count = Collections.frequency(order, food);
+                assertTrue(count >= 0 && count <= 2);
+            }
+            burgers[Collections.frequency(order, FoodType.burger)]++;
+        }
+        for (int count : burgers) {
+            assertEquals(9000, count, 500);
+        }
+    }
+
+    @Test
+    public void fixedOrders() {
+        List<List<Food>> orders = new OrderGenerator(1).orders(10, false);
+        assertEquals(10, orders.size());
+        for (List<Food> order : orders) {
+            assertEquals(OrderGenerator.FIXED_ORDER, order);
+        }
+    }
+
+    @Test
+    public void sameSeedSameSimulation() {
+        DiscreteEventSimulation first = new DiscreteEventSimulation(2000, 5, 20, 2, true);
+        first.setSeed(42);
+        List<SimulationEvent> firstEvents = first.run();
+        DiscreteEventSimulation second = new DiscreteEventSimulation(2000, 5, 20, 2, true);
+        second.setSeed(42);
+        List<SimulationEvent> secondEvents = second.run();
+
+        assertEquals(firstEvents.size(), secondEvents.size());
+        for (int i = 0; i < firstEvents.size(); i++) {
+            assertEquals(firstEvents.get(i).toString(), secondEvents.get(i).toString());
+        }
+        assertEquals(first.getClockNanos(), second.getClockNanos());
+    }
+}
@@ -0,0 +1,113 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderQueueTest {
+
+    private static Customer customer(int number) {
+        return new Customer("Customer " + number, List.of(FoodType.coffee));
+    }
+
+    @Test
+    public void closeWakesWaitingCooks() throws Exception {
+        OrderQueue queue = new OrderQueue();
+        List<CompletableFuture<Customer>> cooks = new ArrayList<CompletableFuture<Customer>>();
+        for (int index = 0; index < 3; index++) {
+            cooks.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        // One order wakes a single cook
+        Customer first = customer(0);
+        queue.put(first);
+        CompletableFuture.anyOf(cooks.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        Thread.sleep(50);
+        assertEquals(1, cooks.stream().filter(CompletableFuture::isDone).count());
+
+        // Closing the queue sends the others home
+        queue.close();
+        List<Customer> taken = new ArrayList<Customer>();
+        for (CompletableFuture<Customer> cook : cooks) {
+            taken.add(cook.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(taken.contains(first));
+        assertEquals(2, taken.stream().filter(customer -> customer == null).count());
+    }
+
+    @Test
+    public void ordersQueuedBeforeCloseAreStillTaken() throws InterruptedException {
+        OrderQueue queue = new OrderQueue();
+        queue.put(customer(0));
+        queue.put(customer(1));
+        queue.close();
+        assertEquals(2, queue.size());
+        assertEquals("Customer 0", queue.take().toString());
+        assertEquals("Customer 1", queue.take().toString());
+        assertEquals(0, queue.size());
+        assertNull(queue.take());
+        assertNull(queue.take());
+    }
+
+    @Test
+    public void removeFromAnyIndex() throws InterruptedException {
+        // Takes the newest order when there is an odd number waiting, the middle one otherwise
+        List<Long> placed = new ArrayList<Long>();
+        OrderSchedulingPolicy policy = (waiting, machines, nowNanos) -> {
+            for (int index = 1; index < waiting.size(); index++) {
+                assertTrue(waiting.getPlacedNanos(index - 1) <= waiting.getPlacedNanos(index));
+            }
+            int index = waiting.size() % 2 == 1 ? waiting.size() - 1 : waiting.size() / 2;
+            placed.add(waiting.getPlacedNanos(index));
+            return index;
+        };
+        OrderQueue queue = new OrderQueue(policy, food -> 0L);
+        List<Integer> expected = new ArrayList<Integer>();
+        List<Integer> model = new ArrayList<Integer>();
+        List<Integer> taken = new ArrayList<Integer>();
+        // Interleaved so that the ring buffer wraps around, and grows past its initial capacity
+        for (int round = 0; round < 10; round++) {
+            for (int index = 0; index < 7; index++) {
+                int number = round * 7 + index;
+                queue.put(customer(number));
+                model.add(number);
+            }
+            for (int index = 0; index < 4; index++) {
+                int choice = model.size() % 2 == 1 ? model.size() - 1 : model.size() / 2;
+                expected.add(model.remove(choice));
+                String name = queue.take().toString();
+                taken.add(Integer.parseInt(name.substring("Customer ".length())));
+            }
+            assertEquals(model.size(), queue.size());
+        }
+        queue.close();
+        Customer customer;
+        while ((customer = queue.take()) != null) {
+            int choice = model.size() % 2 == 1 ? model.size() - 1 : model.size() / 2;
+            expected.add(model.remove(choice));
+            taken.add(Integer.parseInt(customer.toString().substring("Customer ".length())));
+        }
+        assertEquals(expected, taken);
+        assertEquals(70, placed.size());
+    }
+
+    @Test
+    public void policyOutOfRange() {
+        OrderQueue queue = new OrderQueue((waiting, machines, nowNanos) -> waiting.size(), food -> 0L);
+        queue.put(customer(0));
+        assertThrows(IndexOutOfBoundsException.class, queue::take);
+        // The order is still there
+        assertEquals(1, queue.size());
+    }
+}
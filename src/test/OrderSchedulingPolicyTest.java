@@ -0,0 +1,96 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderSchedulingPolicyTest {
+
+    private static List<Customer> placeOrders(OrderQueue queue) {
+        List<Customer> customers = Arrays.asList(
+                new Customer("Big", OrderGenerator.FIXED_ORDER),
+                new Customer("Coffee", List.of(FoodType.coffee)),
+                new Customer("Fries", List.of(FoodType.fries, FoodType.fries)),
+                new Customer("Burger", List.of(FoodType.burger)));
+        for (Customer customer : customers) {
+            queue.put(customer);
+        }
+        queue.close();
+        return customers;
+    }
+
+    private static List<String> takeAll(OrderQueue queue) throws InterruptedException {
+        List<String> taken = new ArrayList<String>();
+        Customer customer;
+        while ((customer = queue.take()) != null) {
+            taken.add(customer.toString());
+        }
+        return taken;
+    }
+
+    @Test
+    public void fifoByDefault() throws InterruptedException {
+        OrderQueue queue = new OrderQueue();
+        placeOrders(queue);
+        assertEquals(List.of("Big", "Coffee", "Fries", "Burger"), takeAll(queue));
+        assertNull(queue.take());
+    }
+
+    @Test
+    public void shortestProcessingTimeFirst() throws InterruptedException {
+        OrderQueue queue = new OrderQueue(OrderSchedulingPolicy.shortestProcessingTime(), food -> 0L);
+        placeOrders(queue);
+        // coffee 100 ms, burger 500 ms, fries 2 x 350 ms, fixed order 1300 ms
+        assertEquals(List.of("Coffee", "Burger", "Fries", "Big"), takeAll(queue));
+    }
+
+    @Test
+    public void machineAwareAvoidsBusyMachines() throws InterruptedException {
+        // The coffee maker is backed up for 10 s
+        MachineLoad machines = food -> food.equals(FoodType.coffee) ? 10_000_000_000L : 0L;
+        OrderQueue queue = new OrderQueue(OrderSchedulingPolicy.machineAware(), machines);
+        placeOrders(queue);
+        // Fries cook in parallel, so that order completes before the burger
+        assertEquals(List.of("Fries", "Burger", "Big", "Coffee"), takeAll(queue));
+    }
+
+    @Test
+    public void agingFifoWeightsProcessingTimeAgainstWaiting() throws InterruptedException {
+        OrderQueue queue = new OrderQueue(OrderSchedulingPolicy.agingFifo(0), food -> 0L);
+        placeOrders(queue);
+        assertEquals(List.of("Coffee", "Burger", "Fries", "Big"), takeAll(queue));
+
+        // Waiting makes up for long orders, which still get served
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(200, 1, 50, 1, true, new EventSink[0]);
+        simulation.setSeed(5);
+        simulation.setSchedulingPolicy(OrderSchedulingPolicy.agingFifo(1e6));
+        simulation.run();
+        assertEquals(200, simulation.getLatencies().getVisit().getCount());
+    }
+
+    private static LatencyHistogram waitForOrder(OrderSchedulingPolicy policy) {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(2000, 2, 20, 2, true, new EventSink[0]);
+        simulation.setSeed(11);
+        simulation.setSchedulingPolicy(policy);
+        simulation.run();
+        assertEquals(2000, simulation.getLatencies().getWaitForOrder().getCount());
+        return simulation.getLatencies().getWaitForOrder();
+    }
+
+    @Test
+    public void shortestProcessingTimeTradesTailForMedian() {
+        LatencyHistogram fifo = waitForOrder(OrderSchedulingPolicy.fifo());
+        LatencyHistogram shortest = waitForOrder(OrderSchedulingPolicy.shortestProcessingTime());
+        LatencyHistogram aging = waitForOrder(OrderSchedulingPolicy.agingFifo(0.1));
+        // Short orders overtake long ones, which starve
+        assertTrue(shortest.getPercentileMillis(50) < fifo.getPercentileMillis(50));
+        assertTrue(shortest.getPercentileMillis(99) > fifo.getPercentileMillis(99));
+        // Aging bounds how long they starve
+        assertTrue(aging.getPercentileMillis(99) < shortest.getPercentileMillis(99));
+    }
+}
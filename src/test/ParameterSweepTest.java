@@ -0,0 +1,76 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParameterSweepTest {
+    static private List<ParameterSweep.Result> results;
+
+    @BeforeAll
+    static void initialize() {
+        ParameterSweep sweep = new ParameterSweep(500, false,
+                ParameterSweep.range(2, 8, 2), new int[]{10, 40}, new int[]{1, 3});
+        results = sweep.run();
+    }
+
+    @Test
+    public void everyConfigurationEvaluated() {
+        assertEquals(4 * 2 * 2, results.size());
+        assertEquals(2, results.get(0).getNumCooks());
+        assertEquals(10, results.get(0).getNumTables());
+        assertEquals(1, results.get(0).getMachineCapacity());
+        assertEquals(2 + 10 + 3, results.get(0).getCost(), 1e-9);
+        for (ParameterSweep.Result result : results) {
+            assertTrue(result.getThroughput() > 0);
+            assertTrue(result.getP95Millis() > 0);
+        }
+    }
+
+    @Test
+    public void menuSetsTheMachines() {
+        ParameterSweep sweep = new ParameterSweep(100, false, new int[]{2}, new int[]{10}, new int[]{2});
+        sweep.setMenu(Menu.parse(List.of(
+                "tea, 100, Kettle, 1",
+                "toast, 200, Toaster, 1",
+                "soup, 300, Stove, 0",
+                "cake, 50, Oven, 1",
+                "juice, 80, Press, 2")));
+        ParameterSweep.Result result = sweep.run().get(0);
+        // Five machines of two slots each
+        assertEquals(2 + 10 + 5 * 2, result.getCost(), 1e-9);
+        assertTrue(result.getThroughput() > 0);
+    }
+
+    @Test
+    public void frontierIsNotDominated() {
+        List<ParameterSweep.Result> frontier = ParameterSweep.frontier(results);
+        assertFalse(frontier.isEmpty());
+        for (ParameterSweep.Result onFrontier : frontier) {
+            for (ParameterSweep.Result result : results) {
+                assertFalse(result.getThroughput() > onFrontier.getThroughput()
+                        && result.getP95Millis() < onFrontier.getP95Millis());
+            }
+        }
+        ParameterSweep.Result fastest = results.stream()
+                .max(Comparator.comparingDouble(ParameterSweep.Result::getThroughput)).get();
+        assertEquals(fastest.getThroughput(), frontier.get(frontier.size() - 1).getThroughput(), 1e-9);
+    }
+
+    @Test
+    public void cheapestMeetingTarget() {
+        Optional<ParameterSweep.Result> any = ParameterSweep.cheapest(results, Double.MAX_VALUE);
+        assertEquals(2 + 10 + 3, any.get().getCost(), 1e-9);
+
+        double bestP95 = results.stream().mapToDouble(ParameterSweep.Result::getP95Millis).min().getAsDouble();
+        ParameterSweep.Result best = ParameterSweep.cheapest(results, bestP95).get();
+        assertEquals(bestP95, best.getP95Millis(), 1e-9);
+        assertFalse(ParameterSweep.cheapest(results, bestP95 / 2).isPresent());
+    }
+}
@@ -0,0 +1,91 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatingTest {
+
+    /**
+     * Starts a customer waiting for a table, and returns once it waits.
+     */
+    private static Thread waitForTable(Seating seating, List<Integer> seated, int number)
+            throws InterruptedException {
+        Thread customer = new Thread(() -> {
+            seating.takeTable();
+            seated.add(number);
+            seating.leaveTable();
+        });
+        customer.start();
+        while (customer.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        return customer;
+    }
+
+    @Test
+    public void fairSeatingInArrivalOrder() throws InterruptedException {
+        Seating seating = new Seating(1, true);
+        seating.takeTable();
+        List<Integer> seated = new CopyOnWriteArrayList<Integer>();
+        List<Thread> customers = new ArrayList<Thread>();
+        for (int number = 0; number < 5; number++) {
+            customers.add(waitForTable(seating, seated, number));
+        }
+        seating.leaveTable();
+        // A customer arriving now waits behind those already in line
+        seating.takeTable();
+        seated.add(5);
+        seating.leaveTable();
+        for (Thread customer : customers) {
+            customer.join();
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), seated);
+        assertEquals(1, seating.getFreeTables());
+    }
+
+    @Test
+    public void unfairSeatingLetsArrivalsBarge() throws InterruptedException {
+        boolean barged = false;
+        for (int attempt = 0; attempt < 10 && !barged; attempt++) {
+            Seating seating = new Seating(1, false);
+            seating.takeTable();
+            List<Integer> seated = new CopyOnWriteArrayList<Integer>();
+            Thread waiting = waitForTable(seating, seated, 0);
+            // The waiting customer still has to wake up when the table frees up
+            seating.leaveTable();
+            seating.takeTable();
+            seated.add(1);
+            seating.leaveTable();
+            waiting.join();
+            barged = seated.get(0) == 1;
+        }
+        assertTrue(barged);
+    }
+
+    @Test
+    public void waitStats() throws InterruptedException {
+        Seating seating = new Seating(2, true);
+        assertEquals(0.0, seating.getAverageWaitMillis());
+        assertTrue(seating.takeTable() < 50_000_000L);
+        assertTrue(seating.takeTable() < 50_000_000L);
+        assertEquals(0, seating.getFreeTables());
+
+        Thread customer = waitForTable(seating, new ArrayList<Integer>(), 0);
+        Thread.sleep(100);
+        seating.leaveTable();
+        customer.join();
+
+        assertEquals(3, seating.getCustomersSeated());
+        assertTrue(seating.getMaxWaitMillis() >= 100);
+        assertEquals(seating.getMaxWaitMillis() / 3, seating.getAverageWaitMillis(),
+                seating.getMaxWaitMillis() / 10);
+        assertEquals(1, seating.getFreeTables());
+        assertEquals(2, seating.getNumTables());
+    }
+}
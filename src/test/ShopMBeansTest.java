@@ -0,0 +1,68 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShopMBeansTest {
+
+    private static Set<ObjectName> query(MBeanServer server, String type) throws JMException {
+        return server.queryNames(new ObjectName("coffeeshop:type=" + type + ",*"), null);
+    }
+
+    @Test
+    public void watchARunningShop() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        // 12 customers, each with a tea the only kettle takes 100 ms to make
+        Menu menu = Menu.parse(List.of("tea, 100, Kettle, 1"));
+        CoffeeShop shop = new CoffeeShop(12, 3, 4, 1, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setMenu(menu);
+        shop.setJmxEnabled(true);
+        CompletableFuture<List<SimulationEvent>> run = CompletableFuture.supplyAsync(shop::run);
+
+        int maxCooking = 0;
+        int maxSeated = 0;
+        int maxOrdersWaiting = 0;
+        int maxBusyCooks = 0;
+        boolean registered = false;
+        while (!run.isDone()) {
+            for (ObjectName name : query(server, "CoffeeShop")) {
+                registered = true;
+                maxSeated = Math.max(maxSeated, (Integer) server.getAttribute(name, "CustomersSeated"));
+                maxOrdersWaiting = Math.max(maxOrdersWaiting, (Integer) server.getAttribute(name, "OrdersWaiting"));
+                int busy = (Integer) server.getAttribute(name, "BusyCooks");
+                maxBusyCooks = Math.max(maxBusyCooks, busy);
+                assertEquals(3, busy + (Integer) server.getAttribute(name, "IdleCooks"));
+            }
+            for (ObjectName name : query(server, "Machine")) {
+                assertEquals("Kettle", name.getKeyProperty("name"));
+                assertEquals(1, server.getAttribute(name, "Capacity"));
+                maxCooking = Math.max(maxCooking, (Integer) server.getAttribute(name, "ItemsCooking"));
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(12, CoffeeShopReport.of(run.get()).getTotalOrdersCompleted());
+
+        assertTrue(registered);
+        // The tables, the kettle and the cooks were seen saturated
+        assertEquals(4, maxSeated);
+        assertEquals(1, maxCooking);
+        assertEquals(3, maxBusyCooks);
+        assertTrue(maxOrdersWaiting > 0);
+        assertTrue(shop.getEventCount() > 12 * 7);
+
+        // The MBeans are gone once the shop is done
+        assertTrue(query(server, "CoffeeShop").isEmpty());
+        assertTrue(query(server, "Machine").isEmpty());
+        assertTrue(query(server, "Cook").isEmpty());
+    }
+}
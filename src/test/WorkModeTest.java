@@ -0,0 +1,133 @@
+package test;
+
+import coffeeshop.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkModeTest {
+
+    /**
+     * Checks that every order was received before any of its items was
+     * started, that every order was completed, and that no machine ever
+     * cooked more items than its capacity.
+     */
+    private static void assertConsistent(List<SimulationEvent> events, int numCustomers, int machineCapacity) {
+        Set<Integer> received = new HashSet<Integer>();
+        Set<Integer> completed = new HashSet<Integer>();
+        Map<Machine, Integer> cooking = new HashMap<Machine, Integer>();
+        for (SimulationEvent event : events) {
+            switch (event.getEvent()) {
+                case CookReceivedOrder:
+                    assertTrue(received.add(event.getOrderNumber()));
+                    break;
+                case CookStartedFood:
+                    assertTrue(received.contains(event.getOrderNumber()));
+                    break;
+                case CookCompletedOrder:
+                    assertTrue(completed.add(event.getOrderNumber()));
+                    break;
+                case MachineStartingFood:
+                    int count = cooking.merge(event.getMachine(), 1, Integer::sum);
+                    assertTrue(count <= machineCapacity);
+                    break;
+                case MachineDoneFood:
+                    cooking.merge(event.getMachine(), -1, Integer::sum);
+                    break;
+                default:
+                    break;
+            }
+        }
+        assertEquals(numCustomers, completed.size());
+    }
+
+    @Test
+    public void threadedItemMode() {
+        CoffeeShop shop = new CoffeeShop(8, 6, 8, 2, false, ExecutionMode.VIRTUAL, new MemoryEventSink());
+        shop.setWorkMode(WorkMode.ITEM);
+        List<SimulationEvent> events = shop.run();
+        assertConsistent(events, 8, 2);
+
+        CoffeeShopReport report = CoffeeShopReport.of(events);
+        assertEquals(8, report.getTotalOrdersCompleted());
+        assertEquals(16, report.getFoodCount(FoodType.fries));
+        assertTrue(shop.getOrdersPerSecond() > 0);
+        assertTrue(shop.getCookUtilization() > 0 && shop.getCookUtilization() <= 1);
+    }
+
+    @Test
+    public void discreteEventItemMode() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(5000, 4, 40, 2, true);
+        simulation.setSeed(3);
+        simulation.setWorkMode(WorkMode.ITEM);
+        List<SimulationEvent> events = simulation.run();
+        assertConsistent(events, 5000, 2);
+        assertEquals(5000, simulation.getLatencies().getPrepareOrder().getCount());
+
+        // Every order is timed by the cook who received it, and only by it
+        Map<Integer, Cook> receivedBy = new HashMap<Integer, Cook>();
+        for (SimulationEvent event : events) {
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder) {
+                receivedBy.put(event.getOrderNumber(), event.getCook());
+            }
+        }
+        receivedBy.forEach((orderNum, cook) -> {
+            assertTrue(cook.getOrderTimings().getOrderNanos(orderNum) >= 0);
+            for (Cook other : receivedBy.values()) {
+                if (other != cook) {
+                    assertEquals(-1, other.getOrderTimings().getOrderNanos(orderNum));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void policyOrdersItemsWaitingForAFullMachine() {
+        // A single kettle, busy with the first order while the others are placed
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(20, 4, 20, 1, false);
+        simulation.setMenu(Menu.parse(List.of("tea, 100, Kettle, 1")));
+        simulation.setWorkMode(WorkMode.ITEM);
+        simulation.setSchedulingPolicy((waiting, machines, nowNanos) -> waiting.size() - 1);
+        List<Integer> received = new ArrayList<Integer>();
+        for (SimulationEvent event : simulation.run()) {
+            if (event.getEvent() == SimulationEvent.EventType.CookReceivedOrder) {
+                received.add(event.getOrderNumber());
+            }
+        }
+        // They stay waiting for the policy to choose, newest first, as the kettle frees up
+        List<Integer> expected = new ArrayList<Integer>(List.of(received.get(0)));
+        for (int orderNum = 19; orderNum >= 0; orderNum--) {
+            if (orderNum != received.get(0)) {
+                expected.add(orderNum);
+            }
+        }
+        assertEquals(expected, received);
+    }
+
+    @Test
+    public void itemModeKeepsCooksBusier() {
+        double[] utilization = new double[2];
+        double[] ordersPerSecond = new double[2];
+        for (WorkMode mode : WorkMode.values()) {
+            DiscreteEventSimulation simulation = new DiscreteEventSimulation(5000, 4, 40, 2, true,
+                    new EventSink[0]);
+            simulation.setSeed(3);
+            simulation.setWorkMode(mode);
+            simulation.run();
+            utilization[mode.ordinal()] = simulation.getCookUtilization();
+            ordersPerSecond[mode.ordinal()] = simulation.getOrdersPerSecond();
+        }
+        assertTrue(utilization[WorkMode.ITEM.ordinal()] > utilization[WorkMode.ORDER.ordinal()]);
+        assertTrue(utilization[WorkMode.ITEM.ordinal()] <= 1);
+        // The machines are the bottleneck either way
+        assertEquals(ordersPerSecond[WorkMode.ORDER.ordinal()], ordersPerSecond[WorkMode.ITEM.ordinal()],
+                0.05 * ordersPerSecond[WorkMode.ORDER.ordinal()]);
+    }
+}